@@ -0,0 +1,178 @@
+package frc.robot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import frc.robot.subsystems.SimDisturbance;
+
+/**
+ * Runs each auto many times in {@link MonteCarloRun} with a different
+ * {@link SimDisturbance} seed each time and reports how long it takes and how
+ * close it ends to where it should, as percentiles.
+ * <p>
+ * Every run is its own JVM. The HAL simulation, the CommandScheduler and
+ * RobotContainer are all global to a process, so separate processes are the
+ * only way to get isolated robots, and they spread across every core. Run it
+ * with the evaluateAutos Gradle task, for example
+ * {@code ./gradlew evaluateAutos --args="200 LeftStartJKL RightStartEDC"}.
+ */
+public class MonteCarloEvaluator {
+    private static final int  kDefaultRuns    = 200;
+
+    private static final long kTimeoutSeconds = 120;
+
+    private MonteCarloEvaluator() {
+    }
+
+    /**
+     * One finished run of an auto
+     */
+    private record Result(boolean completed, double time, double error, double heading) {
+    }
+
+    /**
+     * @param args optional number of runs per auto, then optional auto names,
+     *             defaults to every auto in the deploy directory
+     */
+    public static void main(String... args) throws Exception {
+        int          runs  = args.length > 0 ? Integer.parseInt(args[0]) : kDefaultRuns;
+        List<String> autos = new ArrayList<>(Arrays.asList(args).subList(Math.min(1, args.length), args.length));
+        if (autos.isEmpty()) {
+            File[] files = new File("src/main/deploy/pathplanner/autos")
+                    .listFiles((dir, name) -> name.endsWith(".auto"));
+            if (files != null) {
+                Arrays.sort(files);
+                for (File file : files) {
+                    autos.add(file.getName().substring(0, file.getName().length() - ".auto".length()));
+                }
+            }
+        }
+
+        int             workers  = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        long            start    = System.nanoTime();
+        System.out.printf("MonteCarloEvaluator: %d runs of %d autos on %d cores%n", runs, autos.size(), workers);
+
+        Map<String, List<Future<Result>>> futures = new LinkedHashMap<>();
+        for (String auto : autos) {
+            List<Future<Result>> autoFutures = new ArrayList<>();
+            for (int seed = 0; seed < runs; seed++) {
+                long runSeed = seed;
+                autoFutures.add(executor.submit(() -> runOnce(auto, runSeed)));
+            }
+            futures.put(auto, autoFutures);
+        }
+
+        for (var entry : futures.entrySet()) {
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : entry.getValue()) {
+                Result result = future.get();
+                if (result != null) {
+                    results.add(result);
+                }
+            }
+            report(entry.getKey(), runs, results);
+        }
+        executor.shutdown();
+        System.out.printf("MonteCarloEvaluator: done in %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Runs one simulation in its own JVM. Its output goes to a file rather
+     * than a pipe, so a run that hangs can't block reading and is killed after
+     * {@link #kTimeoutSeconds}.
+     *
+     * @param auto to run
+     * @param seed for the disturbances
+     * @return the result, or null if the run crashed or timed out
+     */
+    private static Result runOnce(String auto, long seed) throws IOException, InterruptedException {
+        File log = File.createTempFile("montecarlo-", ".log");
+        try {
+            Process process = new ProcessBuilder(
+                    new File(System.getProperty("java.home"), "bin/java").getPath(),
+                    "-Djava.library.path=" + System.getProperty("java.library.path"),
+                    "-cp", System.getProperty("java.class.path"),
+                    MonteCarloRun.class.getName(), auto, Long.toString(seed))
+                    .redirectErrorStream(true).redirectOutput(log).start();
+
+            if (!process.waitFor(kTimeoutSeconds, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+                System.out.println("MonteCarloEvaluator: " + auto + " seed " + seed + " timed out after "
+                        + kTimeoutSeconds + " s");
+                return null;
+            }
+
+            Result result = null;
+            for (String line : Files.readAllLines(log.toPath())) {
+                if (line.startsWith("RESULT ")) {
+                    result = parse(line);
+                }
+            }
+            if (result == null) {
+                System.out.println("MonteCarloEvaluator: " + auto + " seed " + seed + " produced no result");
+            }
+            return result;
+        } finally {
+            log.delete();
+        }
+    }
+
+    private static Result parse(String line) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (String field : line.substring("RESULT ".length()).split(" ")) {
+            String[] pair = field.split("=", 2);
+            fields.put(pair[0], pair[1]);
+        }
+        return new Result(Boolean.parseBoolean(fields.get("completed")), Double.parseDouble(fields.get("time")),
+                Double.parseDouble(fields.get("error")), Double.parseDouble(fields.get("heading")));
+    }
+
+    /**
+     * Prints the percentile report for one auto
+     *
+     * @param auto    name
+     * @param runs    that were started
+     * @param results of the runs that finished
+     * @return void
+     */
+    private static void report(String auto, int runs, List<Result> results) {
+        double[] times    = results.stream().filter(Result::completed).mapToDouble(Result::time).sorted().toArray();
+        double[] errors   = results.stream().mapToDouble(Result::error).filter(e -> !Double.isNaN(e)).sorted()
+                .toArray();
+        double[] headings = results.stream().mapToDouble(Result::heading).filter(h -> !Double.isNaN(h)).sorted()
+                .toArray();
+
+        System.out.printf("%n%s: %d/%d runs completed the auto%n", auto, times.length, runs);
+        System.out.println("                      p5      p50      p95      max     mean   stddev");
+        printRow("time (s)", times);
+        printRow("pose error (m)", errors);
+        printRow("heading error (deg)", headings);
+    }
+
+    private static void printRow(String name, double[] sorted) {
+        if (sorted.length == 0) {
+            System.out.printf("%-20s no data%n", name);
+            return;
+        }
+        double mean     = Arrays.stream(sorted).average().orElse(0.0);
+        double variance = Arrays.stream(sorted).map(v -> (v - mean) * (v - mean)).sum() / sorted.length;
+        System.out.printf("%-20s %8.3f %8.3f %8.3f %8.3f %8.3f %8.3f%n", name, percentile(sorted, 0.05),
+                percentile(sorted, 0.50), percentile(sorted, 0.95), sorted[sorted.length - 1], mean,
+                Math.sqrt(variance));
+    }
+
+    private static double percentile(double[] sorted, double fraction) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(fraction * sorted.length))];
+    }
+}
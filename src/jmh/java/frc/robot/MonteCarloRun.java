@@ -0,0 +1,140 @@
+package frc.robot;
+
+import java.util.List;
+
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.path.PathPlannerPath;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.subsystems.SimDisturbance;
+
+/**
+ * One run of {@link MonteCarloEvaluator}, in its own JVM: boots the real Robot
+ * in headless simulation with sim time stepped as fast as the loops run,
+ * picks the auto through the chooser while disabled, places the robot on the
+ * auto's start and runs autonomous with {@link SimDisturbance} between loops,
+ * then prints a RESULT line with the auto's completion time and the error of
+ * the robot's real final pose, not of what odometry thinks it is.
+ */
+public class MonteCarloRun {
+    private static final double     kLoopPeriod     = 0.02;
+
+    private static final double     kDisabledTime   = 2.0;
+
+    private static final double     kAutonomousTime = 15.0;
+
+    private static volatile Command selectedAuto;
+
+    private static volatile double  autoFinishedAt  = Double.NaN;
+
+    private static volatile Pose2d  autoFinishPose;
+
+    private static SimDisturbance   disturbance;
+
+    private MonteCarloRun() {
+    }
+
+    /**
+     * @param args the auto name and the random seed for {@link SimDisturbance}
+     */
+    public static void main(String... args) throws Exception {
+        String auto = args[0];
+        long   seed = Long.parseLong(args[1]);
+
+        if (!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL");
+        }
+        SimHooks.pauseTiming();
+
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+
+        Robot  robot  = new Robot();
+        Thread thread = new Thread(robot::startCompetition, "MonteCarloRobot");
+
+        // Registered before the robot thread starts, the scheduler isn't thread safe
+        CommandScheduler.getInstance().onCommandFinish(command -> {
+            if (command == selectedAuto && Double.isNaN(autoFinishedAt)) {
+                autoFinishedAt = Timer.getFPGATimestamp();
+                autoFinishPose = disturbance.getTruePose();
+            }
+        });
+
+        thread.setDaemon(true);
+        thread.start();
+        SimHooks.stepTiming(0.0); // Let the robot reach its first loop
+
+        // Disabled, which also gives the auto chooser time to load
+        step(kDisabledTime);
+        SmartDashboard.putString("Auto Chooser/selected", auto);
+        step(kLoopPeriod);
+        selectedAuto = RobotContainer.getInstance().getAutonomousCommand();
+
+        // Runs are on the blue alliance, so the paths are used as they are
+        List<PathPlannerPath> paths = PathPlannerAuto.getPathGroupFromAutoFile(auto);
+        disturbance = new SimDisturbance(RobotContainer.getInstance().m_driveBaseSubsystem, seed);
+        if (!paths.isEmpty()) {
+            PathPlannerPath first = paths.get(0);
+            disturbance.place(first.getStartingHolonomicPose().orElseGet(first::getStartingDifferentialPose));
+        }
+
+        double autoSimStart = Timer.getFPGATimestamp();
+        DriverStationSim.setAutonomous(true);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+        for (int loops = (int) Math.round(kAutonomousTime / kLoopPeriod); loops > 0; loops--) {
+            SimHooks.stepTiming(kLoopPeriod);
+            disturbance.afterLoop();
+        }
+
+        Pose2d finalPose = autoFinishPose != null ? autoFinishPose : disturbance.getTruePose();
+        printResult(auto, paths, seed, autoFinishedAt - autoSimStart, finalPose);
+        System.exit(0);
+    }
+
+    /**
+     * Prints one machine readable line describing how the auto went
+     *
+     * @param autoName  that was run
+     * @param paths     the auto follows
+     * @param seed      of the run
+     * @param time      seconds the auto took, NaN if it didn't finish
+     * @param finalPose where the robot really ended up
+     * @return void
+     */
+    private static void printResult(String autoName, List<PathPlannerPath> paths, long seed, double time,
+            Pose2d finalPose) {
+        double error        = Double.NaN;
+        double headingError = Double.NaN;
+        if (!paths.isEmpty()) {
+            PathPlannerPath last  = paths.get(paths.size() - 1);
+            List<Pose2d>    poses = last.getPathPoses();
+            error        = poses.get(poses.size() - 1).getTranslation().getDistance(finalPose.getTranslation());
+            headingError = Math.abs(last.getGoalEndState().rotation().minus(finalPose.getRotation()).getDegrees());
+        }
+        System.out.printf("RESULT auto=%s seed=%d completed=%b time=%.3f error=%.4f heading=%.2f%n", autoName, seed,
+                !Double.isNaN(time), time, error, headingError);
+    }
+
+    /**
+     * Advances sim time one loop at a time, each step waits for the loop to run
+     *
+     * @param seconds of sim time to run
+     * @return void
+     */
+    private static void step(double seconds) {
+        for (int loops = (int) Math.round(seconds / kLoopPeriod); loops > 0; loops--) {
+            SimHooks.stepTiming(kLoopPeriod);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package frc.robot;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.helpers.CompiledTrajectories;
+
+/**
+ * Boots RobotContainer against the simulated hardware and times whole robot
+ * loops: everything Robot.robotPeriodic() does, then the dashboard update
+ * TimedRobot does after it. Each command mix runs for a number of loops with
+ * sim time stepped 20 ms between them, and the loop time percentiles and the
+ * bytes the loop allocated are printed per mix.
+ * <p>
+ * Only the robot thread's allocations are counted, not the sensor notifiers
+ * or NetworkTables' threads. Epilogue isn't bound since there's no Robot, so
+ * logging isn't part of the loop.
+ * <p>
+ * Results are written to build/reports/schedulerloop.properties. Given a
+ * baseline file from an earlier commit, any mix whose p99 or bytes per loop
+ * grew by more than the tolerance fails the run. Run it with the
+ * benchmarkLoop Gradle task, for example
+ * {@code ./gradlew benchmarkLoop -PloopBaseline=schedulerloop.properties}.
+ */
+public class SchedulerLoopBenchmark {
+    private static final int      kDefaultLoops     = 20000;
+
+    private static final String   kResultFile       = "build/reports/schedulerloop.properties";
+
+    // Loop times are noisy on a desktop, allocations aren't
+    private static final double   kLatencyTolerance = 0.25;
+
+    private static final double   kAllocTolerance   = 0.10;
+
+    private static final long     kAllocSlackBytes  = 64;
+
+    private static final Pose2d   kMoveToStart      = new Pose2d(3.0, 2.0, Rotation2d.kZero);
+
+    private static final Pose2d   kMoveToEnd        = new Pose2d(6.0, 4.0, new Rotation2d(Math.PI / 2.0));
+
+    private static RobotContainer container;
+
+    private static int            loop;
+
+    private SchedulerLoopBenchmark() {
+    }
+
+    /**
+     * Something for the robot to be doing during a mix
+     */
+    private interface Mix {
+        /**
+         * Called before every loop, outside the timing, to schedule or reschedule
+         * commands and move the sticks
+         *
+         * @return void
+         */
+        void before();
+    }
+
+    /**
+     * Timing of one mix
+     */
+    private record Result(String name, int loops, double p50, double p90, double p99, double p999, double max,
+            double bytesPerLoop) {
+    }
+
+    /**
+     * @param args optional number of loops per mix, then an optional baseline
+     *             file to compare against
+     */
+    public static void main(String... args) throws Exception {
+        int  loops    = args.length > 0 ? Integer.parseInt(args[0]) : kDefaultLoops;
+        File baseline = args.length > 1 ? new File(args[1]) : null;
+
+        container = SimRobot.boot();
+
+        List<Result> results = List.of(
+                run("manual", loops, SchedulerLoopBenchmark::manual),
+                run("moveTo", loops, moveTo()),
+                run("path", loops, path()),
+                run("intake", loops, intake()));
+
+        System.out.println("SchedulerLoopBenchmark: loop time in us");
+        System.out.println("                p50      p90      p99    p99.9      max  bytes/loop");
+        for (Result result : results) {
+            System.out.printf("%-10s %8.1f %8.1f %8.1f %8.1f %8.1f %11.0f%n", result.name(), result.p50(),
+                    result.p90(), result.p99(), result.p999(), result.max(), result.bytesPerLoop());
+        }
+        write(results);
+
+        boolean passed = baseline == null || compare(results, baseline);
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Runs one mix, a tenth of the loops as warmup and then the timed loops
+     *
+     * @param name  of the mix
+     * @param loops to time
+     * @param mix   to run
+     * @return the timing
+     */
+    private static Result run(String name, int loops, Mix mix) {
+        var      threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long     thread  = Thread.currentThread().getId();
+        double[] times   = new double[loops];
+        long     bytes   = 0;
+
+        CommandScheduler.getInstance().cancelAll();
+        container.m_driveBaseSubsystem.resetPose(kMoveToStart);
+        for (int i = -loops / 10; i < loops; i++) {
+            mix.before();
+            SimRobot.step();
+
+            long startBytes = threads.getThreadAllocatedBytes(thread);
+            long start      = System.nanoTime();
+            SimRobot.loop();
+            long elapsed    = System.nanoTime() - start;
+            long allocated  = threads.getThreadAllocatedBytes(thread) - startBytes;
+            if (i >= 0) {
+                times[i] = elapsed / 1e3;
+                bytes += allocated;
+            }
+            loop++;
+        }
+
+        Arrays.sort(times);
+        return new Result(name, loops, percentile(times, 0.50), percentile(times, 0.90), percentile(times, 0.99),
+                percentile(times, 0.999), times[loops - 1], (double) bytes / loops);
+    }
+
+    /**
+     * The default MoveManualCommandField, with the sticks moving slowly in a
+     * circle while turning
+     *
+     * @return void
+     */
+    private static void manual() {
+        double angle = loop * SimRobot.kLoopPeriod;
+        SimRobot.setSticks(0.6 * Math.sin(angle), 0.6 * Math.cos(angle), 0.3 * Math.sin(angle / 3.0));
+    }
+
+    /**
+     * @return a mix driving MoveToCommand back and forth between two poses
+     */
+    private static Mix moveTo() {
+        Command[] commands = { container.m_driveBaseSubsystem.moveTo(kMoveToEnd),
+                container.m_driveBaseSubsystem.moveTo(kMoveToStart) };
+        int[]     next     = { 0 };
+        return () -> {
+            SimRobot.setSticks(0.0, 0.0, 0.0);
+            if (!isAnyScheduled(commands)) {
+                commands[next[0]].schedule();
+                next[0] = (next[0] + 1) % commands.length;
+            }
+        };
+    }
+
+    /**
+     * @return a mix following every compiled path one after another
+     */
+    private static Mix path() {
+        CompiledTrajectories trajectories = CompiledTrajectories.getInstance();
+        List<String>         names        = trajectories != null ? trajectories.getPathNames() : List.of();
+        if (names.isEmpty()) {
+            System.out.println("SchedulerLoopBenchmark: no compiled paths, run compileTrajectories first");
+            return SchedulerLoopBenchmark::manual;
+        }
+        Command[] commands = new Command[names.size()];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = container.m_driveBaseSubsystem.followCompiledPath(names.get(i));
+        }
+        int[] next = { 0 };
+        return () -> {
+            SimRobot.setSticks(0.0, 0.0, 0.0);
+            if (!isAnyScheduled(commands)) {
+                commands[next[0]].schedule();
+                next[0] = (next[0] + 1) % commands.length;
+            }
+        };
+    }
+
+    /**
+     * @return a mix running the coral and algae intakes while driving manually
+     */
+    private static Mix intake() {
+        Command[] commands = { container.m_manipulatorSubsystem.coralIntakeCommand(true),
+                container.m_manipulatorSubsystem.algaeIntakeCommand(true) };
+        return () -> {
+            manual();
+            for (Command command : commands) {
+                if (!command.isScheduled()) {
+                    command.schedule();
+                }
+            }
+        };
+    }
+
+    private static boolean isAnyScheduled(Command[] commands) {
+        for (Command command : commands) {
+            if (command.isScheduled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double percentile(double[] sorted, double fraction) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(fraction * sorted.length))];
+    }
+
+    /**
+     * Saves the results so a later commit can use them as its baseline
+     *
+     * @param results of every mix
+     * @return void
+     */
+    private static void write(List<Result> results) throws IOException {
+        Properties properties = new Properties();
+        for (Result result : results) {
+            properties.setProperty(result.name() + ".p50", Double.toString(result.p50()));
+            properties.setProperty(result.name() + ".p99", Double.toString(result.p99()));
+            properties.setProperty(result.name() + ".bytesPerLoop", Double.toString(result.bytesPerLoop()));
+        }
+        File file = new File(kResultFile);
+        file.getParentFile().mkdirs();
+        try (Writer out = new FileWriter(file)) {
+            properties.store(out, "SchedulerLoopBenchmark, loop times in us");
+        }
+        System.out.println("SchedulerLoopBenchmark: wrote " + kResultFile);
+    }
+
+    /**
+     * Compares the results with a baseline, printing every mix that got worse
+     *
+     * @param results  of every mix
+     * @param baseline file written by an earlier run
+     * @return true if no mix got worse by more than the tolerance
+     */
+    private static boolean compare(List<Result> results, File baseline) throws IOException {
+        Properties properties = new Properties();
+        try (Reader in = new FileReader(baseline)) {
+            properties.load(in);
+        }
+
+        boolean passed = true;
+        for (Result result : results) {
+            String p99   = properties.getProperty(result.name() + ".p99");
+            String bytes = properties.getProperty(result.name() + ".bytesPerLoop");
+            if (p99 != null && result.p99() > Double.parseDouble(p99) * (1.0 + kLatencyTolerance)) {
+                System.out.printf("SchedulerLoopBenchmark: %s p99 went from %s to %.1f us%n", result.name(), p99,
+                        result.p99());
+                passed = false;
+            }
+            if (bytes != null && result.bytesPerLoop() > Double.parseDouble(bytes) * (1.0 + kAllocTolerance)
+                    + kAllocSlackBytes) {
+                System.out.printf("SchedulerLoopBenchmark: %s allocation went from %s to %.0f bytes/loop%n",
+                        result.name(), bytes, result.bytesPerLoop());
+                passed = false;
+            }
+        }
+        System.out.println("SchedulerLoopBenchmark: " + (passed ? "no regressions" : "REGRESSED") + " against "
+                + baseline);
+        return passed;
+    }
+}
@@ -0,0 +1,312 @@
+package frc.robot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import edu.wpi.first.networktables.MultiSubscriber;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
+import frc.robot.config.ConfigBundle;
+import frc.robot.config.ConfigurationLoader;
+import frc.robot.helpers.LimelightDevice;
+import frc.robot.helpers.LimelightHelpers;
+import frc.robot.helpers.LimelightRecording;
+import swervelib.telemetry.SwerveDriveTelemetry;
+import swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
+
+/**
+ * Measures what the robot's telemetry costs: CPU time on the robot thread and
+ * bytes on the wire to a dashboard, per loop and per second. The robot runs in
+ * simulation in real time, driving in circles, with the default NetworkTables
+ * instance as the server like on the roboRIO. A second instance plays the
+ * dashboard and connects through a local proxy that counts every byte both
+ * ways, so the numbers include NT4's framing and batching but not TCP/IP
+ * headers.
+ * <p>
+ * A telemetry configuration sets YAGSL's telemetry verbosity, whether the
+ * Limelights publish their dashboard data (they only do on the real robot,
+ * so here they are called from the loop with a recorded camera), and how the
+ * dashboard subscribes: "dashboard" gets the latest values every 100 ms like
+ * Elastic or Shuffleboard, "logger" gets every value like AdvantageScope.
+ * Configurations are given as arguments, for example
+ * {@code current:swerve=HIGH,limelight=on,client=dashboard}.
+ * <p>
+ * Config files are only published when they are loaded, so they aren't part
+ * of the loop; the time one publish takes is printed separately, and their
+ * values are part of the first second's initial sync. Run it with the
+ * benchmarkTelemetry Gradle task.
+ */
+public class TelemetryBandwidthBenchmark {
+    private static final String[]          kDefaultConfigs = {
+            "current:swerve=HIGH,limelight=on,client=dashboard",
+            "logger:swerve=HIGH,limelight=on,client=logger",
+            "noLimelight:swerve=HIGH,limelight=off,client=dashboard",
+            "swervePose:swerve=POSE,limelight=on,client=dashboard",
+            "minimal:swerve=NONE,limelight=off,client=dashboard" };
+
+    private static final int               kDefaultSeconds = 20;
+
+    private static final int               kWarmupSeconds  = 3;
+
+    private static final int               kServerPort     = 5811;
+
+    private static final int               kNt3Port        = 1736;
+
+    private static final int               kProxyPort      = 5812;
+
+    private static final String            kPersistFile    = "build/telemetrybenchmark.json";
+
+    private static final int               kPublishCalls   = 100;
+
+    // The FMS caps each robot's radio link at 4 Mbit/s, camera streams included
+    private static final double            kFmsLimitKbits  = 4000.0;
+
+    private static final ThreadMXBean      threads         = ManagementFactory.getThreadMXBean();
+
+    private static final AtomicLong        wireBytes       = new AtomicLong();
+
+    private static final LimelightDevice[] limelights      = { new LimelightDevice("limelight-upper"),
+            new LimelightDevice("limelight-lower") };
+
+    private static RobotContainer          container;
+
+    private static int                     loop;
+
+    private static long                    nextLoop;
+
+    private TelemetryBandwidthBenchmark() {
+    }
+
+    /**
+     * One set of telemetry to measure
+     */
+    private record Config(String name, TelemetryVerbosity swerve, boolean limelight, boolean sendAll) {
+    }
+
+    /**
+     * What one configuration cost
+     */
+    private record Result(String name, double cpuUs, double bytesPerLoop, long firstSecondBytes) {
+    }
+
+    /**
+     * @param args optional seconds to measure each configuration, then optional
+     *             configurations, defaults to {@link #kDefaultConfigs}
+     */
+    public static void main(String... args) throws Exception {
+        int          seconds = args.length > 0 ? Integer.parseInt(args[0]) : kDefaultSeconds;
+        List<Config> configs = new ArrayList<>();
+        for (String spec : args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) : kDefaultConfigs) {
+            configs.add(parseConfig(spec));
+        }
+
+        container = SimRobot.boot();
+        NetworkTableInstance.getDefault().startServer(kPersistFile, "", kNt3Port, kServerPort);
+        startProxy();
+
+        NetworkTableInstance client = NetworkTableInstance.create();
+        client.startClient4("TelemetryBandwidthBenchmark");
+        client.setServer("127.0.0.1", kProxyPort);
+        for (int i = 0; i < 50 && !client.isConnected(); i++) {
+            Thread.sleep(100);
+        }
+        if (!client.isConnected()) {
+            throw new IllegalStateException("Dashboard stand-in couldn't connect to the NetworkTables server");
+        }
+
+        for (LimelightDevice limelight : limelights) {
+            LimelightRecording.publish(limelight.getName());
+        }
+
+        // Warm up with the first configuration so the JIT has compiled the loop
+        measure(client, configs.get(0), kWarmupSeconds);
+
+        List<Result> results = new ArrayList<>();
+        for (Config config : configs) {
+            results.add(measure(client, config, seconds));
+        }
+
+        System.out.printf("TelemetryBandwidthBenchmark: %d s per configuration, FMS limit %.0f kbit/s%n", seconds,
+                kFmsLimitKbits);
+        System.out.println("               cpu us/loop  bytes/loop    kbit/s  % of FMS  first second bytes");
+        for (Result result : results) {
+            double kbits = result.bytesPerLoop() * 8.0 / SimRobot.kLoopPeriod / 1000.0;
+            System.out.printf("%-14s %11.1f %11.0f %9.1f %8.1f%% %19d%n", result.name(), result.cpuUs(),
+                    result.bytesPerLoop(), kbits, 100.0 * kbits / kFmsLimitKbits, result.firstSecondBytes());
+        }
+
+        System.out.printf("Config publish, once per load: drivebasesubsystem.json %.1f us,"
+                + " alliancelandmarks.json %.1f us%n", publishTime(ConfigBundle.getDriveBaseSubsystemConfig()),
+                publishTime(ConfigBundle.getAllianceLandmarksConfig()));
+
+        client.close();
+        System.exit(0);
+    }
+
+    /**
+     * @param spec name:swerve=VERBOSITY,limelight=on|off,client=dashboard|logger
+     * @return the configuration, anything left out is as on the robot
+     */
+    private static Config parseConfig(String spec) {
+        String[]            parts    = spec.split(":", 2);
+        Map<String, String> settings = new HashMap<>();
+        if (parts.length > 1) {
+            for (String setting : parts[1].split(",")) {
+                String[] pair = setting.split("=", 2);
+                settings.put(pair[0], pair.length > 1 ? pair[1] : "");
+            }
+        }
+
+        TelemetryVerbosity swerve;
+        try {
+            swerve = TelemetryVerbosity.valueOf(settings.getOrDefault("swerve", "HIGH"));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(parts[0] + ": swerve must be one of "
+                    + Arrays.toString(TelemetryVerbosity.values()));
+        }
+        return new Config(parts[0], swerve, !"off".equals(settings.get("limelight")),
+                "logger".equals(settings.get("client")));
+    }
+
+    /**
+     * Runs the robot in real time with one configuration, counting the robot
+     * thread's CPU time and the bytes on the wire
+     *
+     * @param client  the dashboard stand-in
+     * @param config  to measure
+     * @param seconds to measure for, after the first second
+     * @return what the configuration cost
+     */
+    private static Result measure(NetworkTableInstance client, Config config, int seconds) {
+        SwerveDriveTelemetry.verbosity = config.swerve();
+        MultiSubscriber subscriber = config.sendAll()
+                ? new MultiSubscriber(client, new String[] { "" }, PubSubOption.sendAll(true))
+                : new MultiSubscriber(client, new String[] { "" });
+        int loopsPerSecond = (int) Math.round(1.0 / SimRobot.kLoopPeriod);
+        nextLoop = System.nanoTime();
+
+        // The first second includes the initial sync of every topic
+        long firstBytes = wireBytes.get();
+        for (int i = 0; i < loopsPerSecond; i++) {
+            runLoop(config);
+        }
+        firstBytes = wireBytes.get() - firstBytes;
+
+        int  loops = seconds * loopsPerSecond;
+        long cpu   = 0;
+        long bytes = wireBytes.get();
+        for (int i = 0; i < loops; i++) {
+            cpu += runLoop(config);
+        }
+        bytes = wireBytes.get() - bytes;
+
+        subscriber.close();
+        return new Result(config.name(), cpu / 1e3 / loops, (double) bytes / loops, firstBytes);
+    }
+
+    /**
+     * Runs one robot loop and waits until the next one is due
+     *
+     * @param config being measured
+     * @return nanoseconds of CPU time the robot thread spent in the loop
+     */
+    private static long runLoop(Config config) {
+        double angle = loop++ * SimRobot.kLoopPeriod;
+        SimRobot.setSticks(0.6 * Math.sin(angle), 0.6 * Math.cos(angle), 0.3 * Math.sin(angle / 3.0));
+        if (config.limelight()) {
+            // The camera sees the tags move as the robot drives
+            for (LimelightDevice limelight : limelights) {
+                LimelightHelpers.getLimelightNTTableEntry(limelight.getName(), "tx")
+                        .setDouble(-3.41 + 2.0 * Math.sin(angle));
+                LimelightHelpers.getLimelightNTTableEntry(limelight.getName(), "ty")
+                        .setDouble(2.27 + 0.5 * Math.cos(angle));
+            }
+        }
+        SimRobot.step();
+
+        long start = threads.getCurrentThreadCpuTime();
+        SimRobot.loop();
+        if (config.limelight()) {
+            double heading = container.m_driveBaseSubsystem.getPose().getRotation().getDegrees();
+            for (LimelightDevice limelight : limelights) {
+                limelight.getPoseEstimate(heading);
+            }
+        }
+        NetworkTableInstance.getDefault().flushLocal();
+        long cpu = threads.getCurrentThreadCpuTime() - start;
+
+        nextLoop += (long) (SimRobot.kLoopPeriod * 1e9);
+        LockSupport.parkNanos(nextLoop - System.nanoTime());
+        return cpu;
+    }
+
+    /**
+     * @param <TConfig> type of the configuration
+     * @param config    to publish
+     * @return microseconds of CPU time one publish takes
+     */
+    private static <TConfig> double publishTime(TConfig config) throws Exception {
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < kPublishCalls; i++) {
+            ConfigurationLoader.publish(config);
+        }
+        return (threads.getCurrentThreadCpuTime() - start) / 1e3 / kPublishCalls;
+    }
+
+    /**
+     * Listens on {@link #kProxyPort} and forwards every connection to the
+     * NetworkTables server, counting the bytes both ways
+     *
+     * @return void
+     */
+    private static void startProxy() throws IOException {
+        ServerSocket listener = new ServerSocket(kProxyPort, 1, InetAddress.getLoopbackAddress());
+        Thread       thread   = new Thread(() -> acceptConnections(listener), "TelemetryProxy");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void acceptConnections(ServerSocket listener) {
+        while (true) {
+            try {
+                Socket dashboard = listener.accept();
+                Socket robot     = new Socket(InetAddress.getLoopbackAddress(), kServerPort);
+                pipe(dashboard.getInputStream(), robot.getOutputStream());
+                pipe(robot.getInputStream(), dashboard.getOutputStream());
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+    }
+
+    private static void pipe(InputStream in, OutputStream out) {
+        Thread thread = new Thread(() -> {
+            byte[] buffer = new byte[16384];
+            try {
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    out.write(buffer, 0, read);
+                    out.flush();
+                    wireBytes.addAndGet(read);
+                }
+            } catch (IOException e) {
+                // The connection closed
+            }
+        }, "TelemetryProxyPipe");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
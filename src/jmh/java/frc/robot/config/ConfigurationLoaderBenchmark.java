@@ -0,0 +1,54 @@
+package frc.robot.config;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.ConfigurationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Times loading the deploy directory config files. load() is what startup
+ * does: the StartupCache, then publishing every field to the dashboard. The
+ * cache is only written at the end of Robot(), so every call here is a miss,
+ * the cost of the first boot after a file changed. parse() is what the
+ * ConfigService does when a file is edited.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigurationLoaderBenchmark {
+    @Setup(Level.Trial)
+    public void setup() {
+        HAL.initialize(500, 0);
+    }
+
+    @Benchmark
+    public DriveBaseSubsystemConfig loadDriveBaseSubsystem() throws ConfigurationException {
+        return ConfigurationLoader.load("drivebasesubsystem.json", DriveBaseSubsystemConfig.class);
+    }
+
+    @Benchmark
+    public DriveBaseSubsystemConfig parseDriveBaseSubsystem() throws ConfigurationException {
+        return ConfigurationLoader.parse("drivebasesubsystem.json", DriveBaseSubsystemConfig.class);
+    }
+
+    @Benchmark
+    public AllianceLandmarksConfig loadAllianceLandmarks() throws ConfigurationException {
+        return ConfigurationLoader.load("alliancelandmarks.json", AllianceLandmarksConfig.class);
+    }
+}
@@ -0,0 +1,49 @@
+package frc.robot.helpers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times decoding a Limelight's NetworkTables output, using the values in
+ * {@link LimelightRecording}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LimelightHelpersBenchmark {
+    private static final String kName = "limelight-upper";
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        LimelightRecording.publish(kName);
+    }
+
+    @Benchmark
+    public LimelightHelpers.PoseEstimate getBotPoseEstimate() {
+        return LimelightHelpers.getBotPoseEstimate_wpiBlue(kName);
+    }
+
+    @Benchmark
+    public LimelightHelpers.RawFiducial[] getRawFiducials() {
+        return LimelightHelpers.getRawFiducials(kName);
+    }
+
+    @Benchmark
+    public LimelightHelpers.LimelightResults getLatestResults() {
+        return LimelightHelpers.getLatestResults(kName);
+    }
+}
@@ -0,0 +1,92 @@
+package frc.robot.helpers;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import frc.robot.AllianceLandmarks;
+import frc.robot.AllianceLandmarks.Landmark;
+
+/**
+ * Times {@link GridPathfinder} planning between every pair of landmarks in
+ * {@link AllianceLandmarks} for both alliances. Run it with the
+ * benchmarkPathfinder Gradle task.
+ */
+public class PathfinderBenchmark {
+    private static final int kWarmupRounds = 20;
+
+    private static final int kRounds       = 50;
+
+    private PathfinderBenchmark() {
+    }
+
+    /**
+     * @param args optional navgrid.json, defaults to the one in src/main/deploy
+     */
+    public static void main(String... args) throws Exception {
+        File           navgrid    = new File(args.length > 0 ? args[0] : "src/main/deploy/" + GridPathfinder.kFileName);
+        GridPathfinder pathfinder = GridPathfinder.load(navgrid);
+
+        AllianceLandmarks alliance_landmarks = new AllianceLandmarks();
+        List<Pose2d>      landmarks          = new ArrayList<>();
+        for (Alliance alliance : Alliance.values()) {
+            for (Landmark landmark : Landmark.values()) {
+                landmarks.add(alliance_landmarks.getPose(alliance, landmark));
+            }
+        }
+
+        int pairs = landmarks.size() * (landmarks.size() - 1);
+        for (int round = 0; round < kWarmupRounds; round++) {
+            planAll(pathfinder, landmarks, null);
+        }
+        double[] times      = new double[pairs * kRounds];
+        double[] roundTimes = new double[pairs];
+        int      failures   = 0;
+        for (int round = 0; round < kRounds; round++) {
+            failures = planAll(pathfinder, landmarks, roundTimes);
+            System.arraycopy(roundTimes, 0, times, round * pairs, pairs);
+        }
+        Arrays.sort(times);
+
+        double total = 0.0;
+        for (double time : times) {
+            total += time;
+        }
+        System.out.printf("PathfinderBenchmark: %d landmarks, %d pairs, %d rounds, %d failed%n", landmarks.size(),
+                pairs, kRounds, failures);
+        System.out.printf("PathfinderBenchmark: mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                total / times.length, times[times.length / 2], times[(int) (times.length * 0.99)],
+                times[times.length - 1]);
+    }
+
+    /**
+     * Plans between every ordered pair of landmarks
+     *
+     * @param pathfinder to plan with
+     * @param landmarks  to plan between
+     * @param times      filled with the time of each plan in ms, may be null
+     * @return the number of pairs with no path
+     */
+    private static int planAll(GridPathfinder pathfinder, List<Pose2d> landmarks, double[] times) {
+        int failures = 0;
+        int pair     = 0;
+        for (Pose2d from : landmarks) {
+            for (Pose2d to : landmarks) {
+                if (from == to) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                if (pathfinder.findPath(from.getTranslation(), to.getTranslation()).isEmpty()) {
+                    failures++;
+                }
+                if (times != null) {
+                    times[pair++] = (System.nanoTime() - start) / 1e6;
+                }
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,127 @@
+package frc.robot.helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pathplanner.lib.config.RobotConfig;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectory;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Compares three ways of sampling the paths at 50 Hz, the way a path following
+ * command does: PathPlanner's trajectory sample(),
+ * {@link CompiledTrajectories#sample} which binary searches, and
+ * {@link TrajectorySampler} which keeps a cursor. Each operation is one sample;
+ * time moves forward one loop per operation and wraps onto the next path at
+ * the end of each one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrajectorySamplerBenchmark {
+    private static final double               kLoopPeriod = 0.02;
+
+    private CompiledTrajectories              trajectories;
+
+    private final List<PathPlannerTrajectory> stock       = new ArrayList<>();
+
+    private final List<TrajectorySampler>     samplers    = new ArrayList<>();
+
+    private int[]                             ids;
+
+    private final CompiledTrajectories.State  state       = new CompiledTrajectories.State();
+
+    private int                               path;
+
+    private double                            t;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        HAL.initialize(500, 0);
+        trajectories = CompiledTrajectories.getInstance();
+        if (trajectories == null) {
+            throw new IllegalStateException("Run compileTrajectories first");
+        }
+        RobotConfig robotConfig = RobotConfig.fromGUISettings();
+
+        List<Integer> found = new ArrayList<>();
+        for (String name : trajectories.getPathNames()) {
+            var trajectory = PathPlannerPath.fromPathFile(name).getIdealTrajectory(robotConfig);
+            if (trajectory.isPresent()) {
+                int id = trajectories.getPathId(name);
+                stock.add(trajectory.get());
+                samplers.add(new TrajectorySampler(trajectories, id));
+                found.add(id);
+            }
+        }
+        ids = found.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Setup(Level.Iteration)
+    public void rewind() {
+        path = 0;
+        t    = 0.0;
+        samplers.get(0).reset();
+    }
+
+    @Benchmark
+    public double pathPlannerTrajectory() {
+        PathPlannerTrajectory trajectory = stock.get(path);
+        double                x          = trajectory.sample(t).pose.getX();
+        advance(trajectory.getTotalTimeSeconds());
+        return x;
+    }
+
+    @Benchmark
+    public double compiledTrajectories() {
+        int id = ids[path];
+        trajectories.sample(id, t, false, state);
+        advance(trajectories.getTotalTime(id));
+        return state.x;
+    }
+
+    @Benchmark
+    public double trajectorySampler() {
+        TrajectorySampler sampler = samplers.get(path);
+        double            x       = sampler.sample(t, false).x;
+        if (advance(sampler.getTotalTime())) {
+            samplers.get(path).reset();
+        }
+        return x;
+    }
+
+    /**
+     * Moves time forward one loop, onto the start of the next path once this one
+     * is done
+     *
+     * @param totalTime of the current path
+     * @return true if it moved onto the next path
+     */
+    private boolean advance(double totalTime) {
+        t += kLoopPeriod;
+        if (t <= totalTime) {
+            return false;
+        }
+        path = (path + 1) % ids.length;
+        t    = 0.0;
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+package frc.robot.subsystems;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Times the target seeking MoveToCommand and the facing commands run every
+ * loop, through the same public calls they make: the trapezoid profiles that
+ * turn the distance and angle to the target into speeds, and handing the
+ * speeds to the swerve drive. Odometry only moves when the sensors are
+ * captured, so the robot stays a few meters from the target and the profiles
+ * are always working, never inside the deadband.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriveBaseSubsystemBenchmark {
+    private final Pose2d       current = new Pose2d(2.0, 3.0, Rotation2d.fromDegrees(30.0));
+
+    private final Pose2d       target  = new Pose2d(5.5, 4.0, Rotation2d.fromDegrees(120.0));
+
+    private DriveBaseSubsystem driveBase;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HAL.initialize(500, 0);
+        driveBase = new DriveBaseSubsystem();
+        driveBase.resetPose(current);
+    }
+
+    @Setup(Level.Iteration)
+    public void setTarget() {
+        driveBase.setTarget(target, current);
+    }
+
+    @Benchmark
+    public boolean driveToTarget() {
+        driveBase.driveToTarget();
+        return driveBase.getHasTarget();
+    }
+
+    @Benchmark
+    public boolean driveAtAngle() {
+        driveBase.driveAtAngle(0.0, 0.0);
+        return driveBase.getHasTarget();
+    }
+}
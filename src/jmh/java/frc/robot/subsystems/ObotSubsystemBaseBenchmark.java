@@ -0,0 +1,67 @@
+package frc.robot.subsystems;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Times the dashboard calls every subsystem makes from periodic(). The value
+ * changes on every call so NetworkTables always has something to publish.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObotSubsystemBaseBenchmark {
+    private TelemetrySubsystem subsystem;
+
+    private double             value;
+
+    /**
+     * Subsystem with nothing but the base class, so only the telemetry calls are
+     * measured
+     */
+    static class TelemetrySubsystem extends ObotSubsystemBase {
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HAL.initialize(500, 0);
+        subsystem = new TelemetrySubsystem();
+    }
+
+    @Benchmark
+    public void putDashboardNumber() {
+        subsystem.putDashboardNumber("Position", value++);
+    }
+
+    @Benchmark
+    public void putDashboardNumberVerboseOff() {
+        subsystem.verbosity = false;
+        subsystem.putDashboardNumberVerbose("Position", value++);
+    }
+
+    @Benchmark
+    public void putDashboardString() {
+        subsystem.putDashboardString("State", (value++ % 2) == 0 ? "Stowed" : "Moving");
+    }
+
+    @Benchmark
+    public void putDashboardBoolean() {
+        subsystem.putDashboardBoolean("AtTarget", (value++ % 2) == 0);
+    }
+}
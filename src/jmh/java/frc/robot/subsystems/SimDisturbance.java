@@ -0,0 +1,113 @@
+package frc.robot.subsystems;
+
+import java.util.Random;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import swervelib.SwerveDrive;
+
+/**
+ * Makes the simulated drive base imperfect for Monte Carlo runs of an auto,
+ * from outside the robot code. YAGSL simulates the drive base with maple-sim,
+ * whose drivetrain pose is where the robot really is; odometry is only what the
+ * robot measures from the simulated gyro and module encoders, and it is all
+ * the robot code sees. The disturbances keep the two apart:
+ * <ul>
+ * <li>start pose error, odometry starts on the auto's start but the robot is
+ * really placed a little off it</li>
+ * <li>wheel slip, the real robot covers less ground than the wheels turn
+ * through, the encoders still count all of it</li>
+ * <li>sensor noise, odometry random walks away from what the encoders and
+ * gyro add up to</li>
+ * </ul>
+ * Slip only takes translation, the gyro measures the real rotation. Call
+ * {@link #place(Pose2d)} before the auto starts and {@link #afterLoop()} after
+ * every sim step of the auto, while the robot thread waits for its next loop.
+ */
+public class SimDisturbance {
+    // Standard deviations, except kSlip which is the mean fraction of motion lost
+    private static final double kStartError        = 0.10;
+
+    private static final double kStartHeadingError = Math.toRadians(3.0);
+
+    private static final double kSlip              = 0.04;
+
+    private static final double kSlipDeviation     = 0.02;
+
+    private static final double kNoise             = 0.005;
+
+    private static final double kHeadingNoise      = Math.toRadians(0.2);
+
+    private final Random        random;
+
+    private final SwerveDrive   swerveDrive;
+
+    private Pose2d              lastTruePose;
+
+    /**
+     * @param driveBase to disturb
+     * @param seed      for the random numbers, the same seed gives the same run
+     */
+    public SimDisturbance(DriveBaseSubsystem driveBase, long seed) {
+        random      = new Random(seed);
+        swerveDrive = driveBase.swerveDrive;
+    }
+
+    /**
+     * Returns where the simulated robot really is
+     *
+     * @return maple-sim's drivetrain pose
+     */
+    public Pose2d getTruePose() {
+        return swerveDrive.getSimulationDriveTrainPose().orElseThrow();
+    }
+
+    /**
+     * Puts the robot and odometry exactly on a pose, like the drive team lining
+     * it up on an auto's start
+     *
+     * @param pose to put the robot on
+     * @return void
+     */
+    public void place(Pose2d pose) {
+        // Moves both odometry and the simulation
+        swerveDrive.resetOdometry(pose);
+        lastTruePose = null;
+    }
+
+    /**
+     * Disturbs the loop that just ran. The first call after
+     * {@link #place(Pose2d)} moves the real robot a random distance off where
+     * odometry thinks it is; it is made after the auto's first loop, because
+     * an auto that resets odometry to its start moves the simulation with it.
+     * Later calls apply one loop of wheel slip to the real robot and sensor
+     * noise to odometry.
+     *
+     * @return void
+     */
+    public void afterLoop() {
+        Pose2d truePose = getTruePose();
+        if (lastTruePose == null) {
+            truePose = new Pose2d(
+                    truePose.getTranslation()
+                            .plus(new Translation2d(random.nextGaussian() * kStartError,
+                                    random.nextGaussian() * kStartError)),
+                    truePose.getRotation().plus(new Rotation2d(random.nextGaussian() * kStartHeadingError)));
+            swerveDrive.getMapleSimDrive().orElseThrow().setSimulationWorldPose(truePose);
+        } else {
+            double        slip = Math.max(0.0, Math.min(1.0, kSlip + random.nextGaussian() * kSlipDeviation));
+            Translation2d kept = lastTruePose.getTranslation().interpolate(truePose.getTranslation(), 1.0 - slip);
+            truePose = new Pose2d(kept, truePose.getRotation());
+            swerveDrive.getMapleSimDrive().orElseThrow().setSimulationWorldPose(truePose);
+
+            Pose2d measured = swerveDrive.getPose();
+            Pose2d noisy    = new Pose2d(measured.getX() + random.nextGaussian() * kNoise,
+                    measured.getY() + random.nextGaussian() * kNoise,
+                    measured.getRotation().plus(new Rotation2d(random.nextGaussian() * kHeadingNoise)));
+            swerveDrive.swerveDrivePoseEstimator.resetPosition(swerveDrive.getYaw(), swerveDrive.getModulePositions(),
+                    noisy);
+        }
+        lastTruePose = truePose;
+    }
+}
@@ -1,148 +1,302 @@
 package frc.robot;
 
+import javax.naming.ConfigurationException;
+
+import com.pathplanner.lib.util.FlippingUtil;
+
 import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import frc.robot.config.AllianceLandmarkConfig;
+import frc.robot.config.AllianceLandmarksConfig;
+import frc.robot.config.ConfigBundle;
+import frc.robot.config.PoseConfig;
+import frc.robot.helpers.SpatialGrid;
 
 public class AllianceLandmarks {
-    private double  blueJoystickInversion = 1.0;
-    private Pose2d  blueStartLeft         = new Pose2d(1.60, 6.95, new Rotation2d(Math.toRadians(48.0)));
-    private Pose2d  blueStartMiddle       = new Pose2d(1.60, 6.95, new Rotation2d(Math.toRadians(48.0)));
-    private Pose2d  blueStartRight        = new Pose2d(1.60, 6.95, new Rotation2d(Math.toRadians(48.0)));
-    private Pose2d  blueProcessor         = new Pose2d(3.25, 7.05, new Rotation2d(0.0));
-    private Pose2d  blueCoralStationLeft  = new Pose2d(2.75, 5.5, new Rotation2d(0.0));
-    private Pose2d  blueCoralStationRight = new Pose2d(2.5, 4.25, new Rotation2d(0.0));
-
-    private Pose2d  blueReefZoneA         = new Pose2d(8.34924, 7.0528, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneB         = new Pose2d(8.34924, 5.9264, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneC         = new Pose2d(8.34924, 4.25, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneD         = new Pose2d(8.34924, 2.5736, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneE         = new Pose2d(8.34924, 0.8972, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneF         = new Pose2d(8.34924, 0.8972, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneG         = new Pose2d(8.34924, 7.0528, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneH         = new Pose2d(8.34924, 5.9264, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneI         = new Pose2d(8.34924, 4.25, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneJ         = new Pose2d(8.34924, 2.5736, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneK         = new Pose2d(8.34924, 0.8972, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneL         = new Pose2d(8.34924, 0.8972, new Rotation2d(0.0));
-
-    private Pose2d  blueReefZoneAB        = new Pose2d(8.34924, 7.0528, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneCD        = new Pose2d(8.34924, 5.9264, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneEF        = new Pose2d(8.34924, 4.25, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneGH        = new Pose2d(8.34924, 2.5736, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneIJ        = new Pose2d(8.34924, 0.8972, new Rotation2d(0.0));
-    private Pose2d  blueReefZoneKL        = new Pose2d(8.34924, 0.8972, new Rotation2d(0.0));
-
-    private double  redJoystickInversion  = -1.0;
-    private Pose2d  redStartLeft          = new Pose2d(1.60, 6.95, new Rotation2d(Math.toRadians(48.0)));
-    private Pose2d  redStartMiddle        = new Pose2d(1.60, 6.95, new Rotation2d(Math.toRadians(48.0)));
-    private Pose2d  redStartRight         = new Pose2d(1.60, 6.95, new Rotation2d(Math.toRadians(48.0)));
-    private Pose2d  redProcessor          = new Pose2d(3.25, 7.05, new Rotation2d(0.0));
-    private Pose2d  redCoralStationLeft   = new Pose2d(2.75, 5.5, new Rotation2d(0.0));
-    private Pose2d  redCoralStationRight  = new Pose2d(2.5, 4.25, new Rotation2d(0.0));
-
-    private Pose2d  redReefZoneA          = new Pose2d(8.34924, 7.0528, new Rotation2d(0.0));
-    private Pose2d  redReefZoneB          = new Pose2d(8.34924, 5.9264, new Rotation2d(0.0));
-    private Pose2d  redReefZoneC          = new Pose2d(8.34924, 4.25, new Rotation2d(0.0));
-    private Pose2d  redReefZoneD          = new Pose2d(8.34924, 2.5736, new Rotation2d(0.0));
-    private Pose2d  redReefZoneE          = new Pose2d(8.34924, 0.8972, new Rotation2d(0.0));
-    private Pose2d  redReefZoneF          = new Pose2d(8.34924, 0.8972, new Rotation2d(0.0));
-    private Pose2d  redReefZoneG          = new Pose2d(8.34924, 7.0528, new Rotation2d(0.0));
-    private Pose2d  redReefZoneH          = new Pose2d(8.34924, 5.9264, new Rotation2d(0.0));
-    private Pose2d  redReefZoneI          = new Pose2d(8.34924, 4.25, new Rotation2d(0.0));
-    private Pose2d  redReefZoneJ          = new Pose2d(8.34924, 2.5736, new Rotation2d(0.0));
-    private Pose2d  redReefZoneK          = new Pose2d(8.34924, 0.8972, new Rotation2d(0.0));
-    private Pose2d  redReefZoneL          = new Pose2d(8.34924, 0.8972, new Rotation2d(0.0));
-
-    private Pose2d  redReefZoneAB         = new Pose2d(8.34924, 7.0528, new Rotation2d(0.0));
-    private Pose2d  redReefZoneCD         = new Pose2d(8.34924, 5.9264, new Rotation2d(0.0));
-    private Pose2d  redReefZoneEF         = new Pose2d(8.34924, 4.25, new Rotation2d(0.0));
-    private Pose2d  redReefZoneGH         = new Pose2d(8.34924, 2.5736, new Rotation2d(0.0));
-    private Pose2d  redReefZoneIJ         = new Pose2d(8.34924, 0.8972, new Rotation2d(0.0));
-    private Pose2d  redReefZoneKL         = new Pose2d(8.34924, 0.8972, new Rotation2d(0.0));
-
-    public Alliance current_alliance;
-    public double   joystickInversion;
-    public Pose2d   startLeft             = blueStartLeft;
-    public Pose2d   startMiddle           = blueStartMiddle;
-    public Pose2d   startRight            = blueStartRight;
-    public Pose2d   processor             = blueProcessor;
-    public Pose2d   coralStationLeft      = blueCoralStationLeft;
-    public Pose2d   coralStationRight     = blueCoralStationRight;
-    public Pose2d   reefZoneA             = blueReefZoneA;
-    public Pose2d   reefZoneB             = blueReefZoneB;
-    public Pose2d   reefZoneC             = blueReefZoneC;
-    public Pose2d   reefZoneD             = blueReefZoneD;
-    public Pose2d   reefZoneE             = blueReefZoneE;
-    public Pose2d   reefZoneF             = blueReefZoneF;
-    public Pose2d   reefZoneG             = blueReefZoneG;
-    public Pose2d   reefZoneH             = blueReefZoneH;
-    public Pose2d   reefZoneI             = blueReefZoneI;
-    public Pose2d   reefZoneJ             = blueReefZoneJ;
-    public Pose2d   reefZoneK             = blueReefZoneK;
-    public Pose2d   reefZoneL             = blueReefZoneL;
-    public Pose2d   reefZoneAB            = blueReefZoneAB;
-    public Pose2d   reefZoneCD            = blueReefZoneCD;
-    public Pose2d   reefZoneEF            = blueReefZoneEF;
-    public Pose2d   reefZoneGH            = blueReefZoneGH;
-    public Pose2d   reefZoneIJ            = blueReefZoneIJ;
-    public Pose2d   reefZoneKL            = blueReefZoneKL;
+    public static final long        kAllLandmarks = SpatialGrid.kAll;
 
-    public void newAlliance(Alliance alliance) {
-        current_alliance = alliance;
-        if (alliance == Alliance.Blue) {
-            joystickInversion = blueJoystickInversion;
-            startLeft         = blueStartLeft;
-            startMiddle       = blueStartMiddle;
-            startRight        = blueStartRight;
-            processor         = blueProcessor;
-            coralStationLeft  = blueCoralStationLeft;
-            coralStationRight = blueCoralStationRight;
-            reefZoneA         = blueReefZoneA;
-            reefZoneB         = blueReefZoneB;
-            reefZoneC         = blueReefZoneC;
-            reefZoneD         = blueReefZoneD;
-            reefZoneE         = blueReefZoneE;
-            reefZoneF         = blueReefZoneF;
-            reefZoneG         = blueReefZoneG;
-            reefZoneH         = blueReefZoneH;
-            reefZoneI         = blueReefZoneI;
-            reefZoneJ         = blueReefZoneJ;
-            reefZoneK         = blueReefZoneK;
-            reefZoneL         = blueReefZoneL;
-            reefZoneAB        = blueReefZoneAB;
-            reefZoneCD        = blueReefZoneCD;
-            reefZoneEF        = blueReefZoneEF;
-            reefZoneGH        = blueReefZoneGH;
-            reefZoneIJ        = blueReefZoneIJ;
-            reefZoneKL        = blueReefZoneKL;
-        } else {
-            joystickInversion = redJoystickInversion;
-            startLeft         = redStartLeft;
-            startMiddle       = redStartMiddle;
-            startRight        = redStartRight;
-            processor         = redProcessor;
-            coralStationLeft  = redCoralStationLeft;
-            coralStationRight = redCoralStationRight;
-            reefZoneA         = redReefZoneA;
-            reefZoneB         = redReefZoneB;
-            reefZoneC         = redReefZoneC;
-            reefZoneD         = redReefZoneD;
-            reefZoneE         = redReefZoneE;
-            reefZoneF         = redReefZoneF;
-            reefZoneG         = redReefZoneG;
-            reefZoneH         = redReefZoneH;
-            reefZoneI         = redReefZoneI;
-            reefZoneJ         = redReefZoneJ;
-            reefZoneK         = redReefZoneK;
-            reefZoneL         = redReefZoneL;
-            reefZoneAB        = redReefZoneAB;
-            reefZoneCD        = redReefZoneCD;
-            reefZoneEF        = redReefZoneEF;
-            reefZoneGH        = redReefZoneGH;
-            reefZoneIJ        = redReefZoneIJ;
-            reefZoneKL        = redReefZoneKL;
+    // Landmark.values() copies the array every call
+    private static final Landmark[] kLandmarks    = Landmark.values();
+
+    private static final double     kGridCellSize = 1.0;
+
+    // Indexed by allianceIndex()
+    private final Side[]            sides         = new Side[2];
+
+    private final int[]             found         = new int[kLandmarks.length];
+
+    private Side                    current;
+
+    /**
+     * Every landmark. Use these with {@link #nearest} and {@link #withinRadius}
+     * from commands that run every loop.
+     */
+    public enum Landmark {
+        START_LEFT("startLeft"),
+        START_MIDDLE("startMiddle"),
+        START_RIGHT("startRight"),
+        PROCESSOR("processor"),
+        CORAL_STATION_LEFT("coralStationLeft"),
+        CORAL_STATION_RIGHT("coralStationRight"),
+        REEF_ZONE_A("reefZoneA"),
+        REEF_ZONE_B("reefZoneB"),
+        REEF_ZONE_C("reefZoneC"),
+        REEF_ZONE_D("reefZoneD"),
+        REEF_ZONE_E("reefZoneE"),
+        REEF_ZONE_F("reefZoneF"),
+        REEF_ZONE_G("reefZoneG"),
+        REEF_ZONE_H("reefZoneH"),
+        REEF_ZONE_I("reefZoneI"),
+        REEF_ZONE_J("reefZoneJ"),
+        REEF_ZONE_K("reefZoneK"),
+        REEF_ZONE_L("reefZoneL"),
+        REEF_ZONE_AB("reefZoneAB"),
+        REEF_ZONE_CD("reefZoneCD"),
+        REEF_ZONE_EF("reefZoneEF"),
+        REEF_ZONE_GH("reefZoneGH"),
+        REEF_ZONE_IJ("reefZoneIJ"),
+        REEF_ZONE_KL("reefZoneKL");
+
+        public static final long kReefBranches = mask(REEF_ZONE_A, REEF_ZONE_B, REEF_ZONE_C, REEF_ZONE_D, REEF_ZONE_E,
+                REEF_ZONE_F, REEF_ZONE_G, REEF_ZONE_H, REEF_ZONE_I, REEF_ZONE_J, REEF_ZONE_K, REEF_ZONE_L);
+
+        public static final long kReefFaces    = mask(REEF_ZONE_AB, REEF_ZONE_CD, REEF_ZONE_EF, REEF_ZONE_GH,
+                REEF_ZONE_IJ, REEF_ZONE_KL);
+
+        public final long        mask          = 1L << ordinal();
+
+        // Name of the field in alliancelandmarks.json
+        public final String      key;
+
+        private Landmark(String new_key) {
+            key = new_key;
+        }
+
+        /**
+         * @param landmarks to include
+         * @return a mask for {@link AllianceLandmarks#nearest} and
+         *         {@link AllianceLandmarks#withinRadius}
+         */
+        public static long mask(Landmark... landmarks) {
+            long mask = 0;
+            for (Landmark landmark : landmarks) {
+                mask |= landmark.mask;
+            }
+            return mask;
+        }
+
+        /**
+         * @param config one alliance from alliancelandmarks.json
+         * @return this landmark's pose in the config, or null if it's missing
+         */
+        private PoseConfig from(AllianceLandmarkConfig config) {
+            return switch (this) {
+                case START_LEFT -> config.startLeft;
+                case START_MIDDLE -> config.startMiddle;
+                case START_RIGHT -> config.startRight;
+                case PROCESSOR -> config.processor;
+                case CORAL_STATION_LEFT -> config.coralStationLeft;
+                case CORAL_STATION_RIGHT -> config.coralStationRight;
+                case REEF_ZONE_A -> config.reefZoneA;
+                case REEF_ZONE_B -> config.reefZoneB;
+                case REEF_ZONE_C -> config.reefZoneC;
+                case REEF_ZONE_D -> config.reefZoneD;
+                case REEF_ZONE_E -> config.reefZoneE;
+                case REEF_ZONE_F -> config.reefZoneF;
+                case REEF_ZONE_G -> config.reefZoneG;
+                case REEF_ZONE_H -> config.reefZoneH;
+                case REEF_ZONE_I -> config.reefZoneI;
+                case REEF_ZONE_J -> config.reefZoneJ;
+                case REEF_ZONE_K -> config.reefZoneK;
+                case REEF_ZONE_L -> config.reefZoneL;
+                case REEF_ZONE_AB -> config.reefZoneAB;
+                case REEF_ZONE_CD -> config.reefZoneCD;
+                case REEF_ZONE_EF -> config.reefZoneEF;
+                case REEF_ZONE_GH -> config.reefZoneGH;
+                case REEF_ZONE_IJ -> config.reefZoneIJ;
+                case REEF_ZONE_KL -> config.reefZoneKL;
+            };
+        }
+    }
+
+    /**
+     * Everything for one alliance. Switching alliance swaps which one is current.
+     */
+    private static class Side {
+        private final Alliance    alliance;
+
+        private final double      joystickInversion;
+
+        // Indexed by landmark ordinal
+        private final Pose2d[]    poses;
+
+        // Primitive copies and a grid, so queries don't touch Pose2d
+        private final double[]    xs;
+
+        private final double[]    ys;
+
+        private final double[]    headings;
+
+        private final SpatialGrid grid;
+
+        private Side(Alliance new_alliance, double new_joystickInversion, Pose2d[] new_poses) {
+            alliance          = new_alliance;
+            joystickInversion = new_joystickInversion;
+            poses             = new_poses;
+            xs                = new double[poses.length];
+            ys                = new double[poses.length];
+            headings          = new double[poses.length];
+            for (int i = 0; i < poses.length; i++) {
+                xs[i]       = poses[i].getX();
+                ys[i]       = poses[i].getY();
+                headings[i] = poses[i].getRotation().getRadians();
+            }
+            grid = new SpatialGrid(xs, ys, kGridCellSize);
+        }
+    }
+
+    /**
+     * Loads the blue alliance's landmarks from alliancelandmarks.json and mirrors
+     * them across the field for red, the same way PathPlanner flips paths, so
+     * each pose is only written down once
+     */
+    public AllianceLandmarks() {
+        AllianceLandmarksConfig config;
+        try {
+            config = ConfigBundle.getAllianceLandmarksConfig();
+        } catch (ConfigurationException e) {
+            e.printStackTrace();
+            config = new AllianceLandmarksConfig();
         }
+
+        Pose2d[] blue = new Pose2d[kLandmarks.length];
+        Pose2d[] red  = new Pose2d[kLandmarks.length];
+        for (Landmark landmark : kLandmarks) {
+            PoseConfig pose = config.blueAlliance == null ? null : landmark.from(config.blueAlliance);
+            if (pose == null) {
+                System.out.println("AllianceLandmarks: no pose for " + landmark.key + ", using the origin");
+            }
+            blue[landmark.ordinal()] = pose == null ? Pose2d.kZero : pose.getPose();
+            red[landmark.ordinal()]  = FlippingUtil.flipFieldPose(blue[landmark.ordinal()]);
+        }
+
+        sides[allianceIndex(Alliance.Blue)] = new Side(Alliance.Blue, joystickInversion(config.blueAlliance, 1.0),
+                blue);
+        sides[allianceIndex(Alliance.Red)]  = new Side(Alliance.Red, joystickInversion(config.redAlliance, -1.0), red);
+        current                             = sides[allianceIndex(Alliance.Blue)];
+    }
+
+    /**
+     * Switches every landmark to the other alliance's poses
+     *
+     * @param alliance we are on now
+     * @return void
+     */
+    public void newAlliance(Alliance alliance) {
+        current = sides[allianceIndex(alliance)];
         System.out.println(alliance);
     }
+
+    /**
+     * @return the alliance given to the last {@link #newAlliance} call, blue
+     *         until then
+     */
+    public Alliance getAlliance() {
+        return current.alliance;
+    }
+
+    /**
+     * @return 1.0 or -1.0, to multiply the driver's joystick by so forward is
+     *         away from our driver station
+     */
+    public double getJoystickInversion() {
+        return current.joystickInversion;
+    }
+
+    /**
+     * @param alliance to look up, regardless of the current one
+     * @param landmark to look up
+     * @return the landmark's pose for that alliance
+     */
+    public Pose2d getPose(Alliance alliance, Landmark landmark) {
+        return sides[allianceIndex(alliance)].poses[landmark.ordinal()];
+    }
+
+    /**
+     * @param landmark to look up
+     * @return the landmark's pose for the current alliance
+     */
+    public Pose2d getPose(Landmark landmark) {
+        return current.poses[landmark.ordinal()];
+    }
+
+    /**
+     * @param landmark to look up
+     * @return the landmark's x for the current alliance in meters
+     */
+    public double getX(Landmark landmark) {
+        return current.xs[landmark.ordinal()];
+    }
+
+    /**
+     * @param landmark to look up
+     * @return the landmark's y for the current alliance in meters
+     */
+    public double getY(Landmark landmark) {
+        return current.ys[landmark.ordinal()];
+    }
+
+    /**
+     * @param landmark to look up
+     * @return the landmark's heading for the current alliance in radians
+     */
+    public double getHeading(Landmark landmark) {
+        return current.headings[landmark.ordinal()];
+    }
+
+    /**
+     * Finds the closest landmark to a position, like the reef face to snap to.
+     * Doesn't allocate, safe to call every loop.
+     *
+     * @param x    of the position in meters
+     * @param y    of the position in meters
+     * @param mask landmarks to consider, like {@link Landmark#kReefFaces}
+     * @return the closest landmark, or null if the mask is empty
+     */
+    public Landmark nearest(double x, double y, long mask) {
+        int index = current.grid.nearest(x, y, mask);
+        return index < 0 ? null : kLandmarks[index];
+    }
+
+    /**
+     * Finds every landmark within a radius of a position. Doesn't allocate, safe
+     * to call every loop.
+     *
+     * @param x      of the position in meters
+     * @param y      of the position in meters
+     * @param radius in meters
+     * @param mask   landmarks to consider, like {@link #kAllLandmarks}
+     * @param out    filled with the landmarks found, in no particular order
+     * @return how many landmarks were written to out, at most out.length
+     */
+    public int withinRadius(double x, double y, double radius, long mask, Landmark[] out) {
+        int count = Math.min(current.grid.withinRadius(x, y, radius, mask, found), out.length);
+        for (int i = 0; i < count; i++) {
+            out[i] = kLandmarks[found[i]];
+        }
+        return count;
+    }
+
+    /**
+     * @param config   one alliance from alliancelandmarks.json, may be null
+     * @param fallback if the config is missing
+     * @return the config's joystick inversion
+     */
+    private static double joystickInversion(AllianceLandmarkConfig config, double fallback) {
+        return config == null ? fallback : config.joystickInversion;
+    }
+
+    private static int allianceIndex(Alliance alliance) {
+        return alliance == Alliance.Blue ? 0 : 1;
+    }
 }
\ No newline at end of file
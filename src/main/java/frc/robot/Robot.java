@@ -14,6 +14,13 @@ import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.config.ConfigBundle;
+import frc.robot.config.ConfigService;
+import frc.robot.config.StartupCache;
+import frc.robot.config.TunableNumber;
+import frc.robot.helpers.PathCache;
+import frc.robot.helpers.StartupProfiler;
+import frc.robot.subsystems.SensorSnapshot;
 
 /**
  * The methods in this class are called automatically corresponding to each
@@ -35,24 +42,32 @@ public class Robot extends TimedRobot {
      * for any initialization code.
      */
     public Robot() {
+        // Start reading every deploy directory config file in the background
+        // before anything needs one
+        ConfigBundle.start();
+
         // Configure logging and telemetry (utilizing the new 2025 auto-logging
         // features)
         ////////////////////////////////////////////////////////////////////////////////////////////////////
 
         // Optional to mirror the NetworkTables-logged data to a file on disk
-        DataLogManager.start();
+        StartupProfiler.run("DataLog", DataLogManager::start);
 
         // Configure Epilogue (this is the auto-logger framework)
         Epilogue.configure(config -> {
             var isSimulation = isSimulation();
             config.minimumImportance = isSimulation ? Logged.Importance.DEBUG : Logged.Importance.CRITICAL;
         });
-        Epilogue.bind(this);
+        StartupProfiler.run("Epilogue", () -> Epilogue.bind(this));
+
+        // Start parsing and flipping every PathPlanner path in the background while
+        // the subsystems are being built
+        PathCache.preload();
 
         // Instantiate our RobotContainer. This will perform all our button bindings,
         // and put our autonomous chooser on the dashboard.
         ////////////////////////////////////////////////////////////////////////////////////////////////////
-        m_robotContainer = RobotContainer.getInstance();
+        m_robotContainer = StartupProfiler.time("RobotContainer", RobotContainer::getInstance);
         HAL.report(tResourceType.kResourceType_Framework, tInstances.kFramework_RobotBuilder);
         enableLiveWindowInTest(true);
 
@@ -61,6 +76,10 @@ public class Robot extends TimedRobot {
         m_alliance.setDefaultOption("Blue", Alliance.Blue);
         m_alliance.addOption("Red", Alliance.Red);
         SmartDashboard.putData("Alliance", m_alliance);
+
+        // Remember anything that had to be parsed for the next boot
+        StartupProfiler.run("StartupCache", StartupCache::save);
+        StartupProfiler.report();
     }
 
     /**
@@ -73,6 +92,22 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotPeriodic() {
+        runLoop();
+    }
+
+    /**
+     * Everything robotPeriodic() does, static so the simulation benchmarks can
+     * run the same loop without Robot or its thread
+     *
+     * @return void
+     */
+    public static void runLoop() {
+        // Swap in any config files that were reloaded and apply tunable changes,
+        // then read every sensor once, with one timestamp, before anything uses them
+        ConfigService.update();
+        TunableNumber.update();
+        SensorSnapshot.getInstance().capture();
+
         // Runs the Scheduler. This is responsible for polling buttons, adding
         // newly-scheduled
         // commands, running already-scheduled commands, removing finished or
@@ -92,6 +127,7 @@ public class Robot extends TimedRobot {
 
     @Override
     public void disabledPeriodic() {
+        m_robotContainer.loadAutos();
     }
 
     /**
@@ -125,7 +161,7 @@ public class Robot extends TimedRobot {
             m_autonomousCommand.cancel();
         }
         m_robotContainer.opmodeInit(m_alliance.getSelected());
-        System.out.println("Joystick Inversion: " + m_robotContainer.m_landmarks.joystickInversion);
+        System.out.println("Joystick Inversion: " + m_robotContainer.m_landmarks.getJoystickInversion());
     }
 
     /**
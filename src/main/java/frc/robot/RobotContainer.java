@@ -1,6 +1,5 @@
 package frc.robot;
 
-import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.auto.NamedCommands;
 
 import edu.wpi.first.math.geometry.Pose2d;
@@ -9,12 +8,17 @@ import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.GenericHID;
 import edu.wpi.first.wpilibj.XboxController;
-import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.button.CommandJoystick;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.robot.AllianceLandmarks.Landmark;
 import frc.robot.commands.AutonomousCommand;
+import frc.robot.helpers.AsyncAutoChooser;
+import frc.robot.helpers.ParallelInit;
+import frc.robot.helpers.RouteTable;
+import frc.robot.helpers.SparkStatusBudget;
+import frc.robot.helpers.StartupProfiler;
 import frc.robot.subsystems.ClimberSubsystem;
 import frc.robot.subsystems.DriveBaseSubsystem;
 import frc.robot.subsystems.ElevatorSubsystem;
@@ -37,13 +41,18 @@ public class RobotContainer {
     }
 
     // The robot's subsystems
-    public final ClimberSubsystem          m_climberSubsystem     = new ClimberSubsystem();
+    // Their SparkMax configuration runs in the background, see ParallelInit
+    public final ClimberSubsystem          m_climberSubsystem     = StartupProfiler.time("ClimberSubsystem",
+            ClimberSubsystem::new);
 
-    public final ElevatorSubsystem         m_elevatorSubsystem    = new ElevatorSubsystem();
+    public final ElevatorSubsystem         m_elevatorSubsystem    = StartupProfiler.time("ElevatorSubsystem",
+            ElevatorSubsystem::new);
 
-    public final ManipulatorSubsystem      m_manipulatorSubsystem = new ManipulatorSubsystem();
+    public final ManipulatorSubsystem      m_manipulatorSubsystem = StartupProfiler.time("ManipulatorSubsystem",
+            ManipulatorSubsystem::new);
 
-    public final DriveBaseSubsystem        m_driveBaseSubsystem   = new DriveBaseSubsystem();
+    public final DriveBaseSubsystem        m_driveBaseSubsystem   = StartupProfiler.time("DriveBaseSubsystem",
+            DriveBaseSubsystem::new);
 
     public final AllianceLandmarks         m_landmarks            = new AllianceLandmarks();
 
@@ -53,7 +62,7 @@ public class RobotContainer {
     private Alliance                       currentAlliance;
 
     // A chooser for autonomous commands
-    private final SendableChooser<Command> m_chooser;
+    private final AsyncAutoChooser         m_chooser;
 
     /**
      * The container for the robot. Contains subsystems, OI devices, and commands.
@@ -67,14 +76,16 @@ public class RobotContainer {
 
         // Register named commands to PathPlanner
         NamedCommands.registerCommand("ElevatorGoToCommand", m_elevatorSubsystem.goToCommand(50.0 ));
+        NamedCommands.registerCommand("ElevatorHomeCommand", m_elevatorSubsystem.homeCommand());
 
         // Configure the button bindings
         configureButtonBindings();
 
         // Configure default commands
         m_driveBaseSubsystem.setDefaultCommand(
-                m_driveBaseSubsystem.moveManual(() -> m_driverController.getRawAxis(1) * m_landmarks.joystickInversion,
-                        () -> m_driverController.getRawAxis(0) * m_landmarks.joystickInversion,
+                m_driveBaseSubsystem.moveManual(
+                        () -> m_driverController.getRawAxis(1) * m_landmarks.getJoystickInversion(),
+                        () -> m_driverController.getRawAxis(0) * m_landmarks.getJoystickInversion(),
                         () -> m_driverController.getRawAxis(4)));
         // m_driveBaseSubsystem.setDefaultCommand( m_driveBaseSubsystem.moveAtAngle(()
         // -> m_driverController.getRawAxis(1) * m_landmarks.joystickInversion, () ->
@@ -82,12 +93,21 @@ public class RobotContainer {
         // Rotation2d(Math.PI)));
 
         // Build an auto chooser. This will use Commands.none() as the default option.
-        m_chooser = AutoBuilder.buildAutoChooser();
-
-        // Another option that allows you to specify the default auto by its name
-        // autoChooser = AutoBuilder.buildAutoChooser("My Default Auto");
-
-        SmartDashboard.putData("Auto Chooser", m_chooser);
+        // The autos are loaded in the background and added as they become ready,
+        // see loadAutos().
+        m_chooser = new AsyncAutoChooser("Auto Chooser", m_driveBaseSubsystem::followCompiledAuto,
+                m_driveBaseSubsystem::followPath, m_driveBaseSubsystem::resetPose);
+
+        // Wait for the background device configuration and file parsing, after
+        // this every SparkMax has been configured
+        ParallelInit.await();
+        SparkStatusBudget.report();
+
+        // Plan the landmark routes in the background, they are ready a few seconds
+        // after boot
+        if (m_driveBaseSubsystem.getPathfinder() != null) {
+            RouteTable.build(m_driveBaseSubsystem.getPathfinder());
+        }
     }
 
     public void configureTestButtonBindings() {
@@ -114,6 +134,15 @@ public class RobotContainer {
         return m_chooser.getSelected();
     }
 
+    /**
+     * Builds the next auto for the chooser, called while disabled
+     *
+     * @return void
+     */
+    public void loadAutos() {
+        m_chooser.periodic();
+    }
+
     /**
      * Use this method to define your button->command mappings. Buttons can be
      * created by instantiating a {@link GenericHID} or one of its subclasses
@@ -126,14 +155,21 @@ public class RobotContainer {
         System.out.println("configureButtonBindings");
         new Trigger(m_driverController.button(1)).whileTrue(m_driveBaseSubsystem.getAngleMotorTestCommand());
         new Trigger(m_driverController.button(6)).whileTrue(
-                m_driveBaseSubsystem.moveAtAngle(() -> m_driverController.getRawAxis(1) * m_landmarks.joystickInversion,
-                        () -> m_driverController.getRawAxis(0) * m_landmarks.joystickInversion, new Rotation2d(0.0)));
+                m_driveBaseSubsystem.moveAtAngle(
+                        () -> m_driverController.getRawAxis(1) * m_landmarks.getJoystickInversion(),
+                        () -> m_driverController.getRawAxis(0) * m_landmarks.getJoystickInversion(),
+                        new Rotation2d(0.0)));
         new Trigger(m_driverController.button(5))
                 .whileTrue(m_driveBaseSubsystem.moveTo(new Pose2d(15.0, 6.0, new Rotation2d(Math.PI))));
         new Trigger(m_driverController.button(2)).whileTrue(m_driveBaseSubsystem.moveFacing(
-                () -> m_driverController.getRawAxis(1) * m_landmarks.joystickInversion,
-                () -> m_driverController.getRawAxis(0) * m_landmarks.joystickInversion, new Translation2d(15.0, 6.0)));
+                () -> m_driverController.getRawAxis(1) * m_landmarks.getJoystickInversion(),
+                () -> m_driverController.getRawAxis(0) * m_landmarks.getJoystickInversion(),
+                new Translation2d(15.0, 6.0)));
         new Trigger(m_driverController.button(3)).whileTrue(m_driveBaseSubsystem.getDriveMotorTestCommand());
+        // From the reef face we're at to the coral station on that side, on the
+        // route planned at boot
+        new Trigger(m_driverController.button(4)).whileTrue(m_driveBaseSubsystem.followRoute(m_landmarks,
+                Landmark.kReefFaces, Landmark.mask(Landmark.CORAL_STATION_LEFT, Landmark.CORAL_STATION_RIGHT)));
         //new Trigger(m_driverController.button(8)).whileTrue(m_manipulatorSubsystem.algaeIntakeCommand(false));
         //new Trigger(m_driverController.button(7)).whileTrue(m_manipulatorSubsystem.algaeIntakeCommand(true));
         // new Trigger( m_driverController.button( 2 ) ).whileTrue( new
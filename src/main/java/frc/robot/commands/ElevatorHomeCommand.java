@@ -0,0 +1,39 @@
+package frc.robot.commands;
+
+import edu.wpi.first.epilogue.Logged;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.subsystems.ElevatorSubsystem;
+
+/**
+ * Drives the elevator down until the home switch zeros the encoder
+ */
+@Logged
+public class ElevatorHomeCommand extends Command {
+    private final ElevatorSubsystem subsystem;
+
+    public ElevatorHomeCommand( ElevatorSubsystem new_subsystem ) {
+        super();
+        subsystem = new_subsystem;
+        addRequirements( subsystem );
+    }
+
+    // Called when the command is initially scheduled.
+    @Override
+    public void initialize() {
+        super.initialize();
+        subsystem.startHoming();
+    }
+
+    // Called once the command ends or is interrupted.
+    @Override
+    public void end(boolean interrupted) {
+        super.end(interrupted);
+        subsystem.stopHoming();
+    }
+
+    // Returns true when the command should end.
+    @Override
+    public boolean isFinished() {
+        return subsystem.isHomed();
+    }
+}
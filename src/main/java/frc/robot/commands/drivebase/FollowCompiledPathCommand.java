@@ -0,0 +1,81 @@
+package frc.robot.commands.drivebase;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.helpers.CompiledTrajectories;
+import frc.robot.helpers.CompiledTrajectories.State;
+import frc.robot.helpers.TrajectorySampler;
+import frc.robot.subsystems.DriveBaseSubsystem;
+import frc.robot.subsystems.SensorSnapshot;
+
+//
+// Command to follow a trajectory that was generated at build time
+//
+//
+public class FollowCompiledPathCommand extends Command {
+    // Same gains AutoBuilder's PPHolonomicDriveController uses
+    private static final double      kTranslationP = 5.0;
+
+    private static final double      kRotationP    = 5.0;
+
+    private final DriveBaseSubsystem driveBaseSubsystem;
+
+    private final TrajectorySampler  sampler;
+
+    private final SensorSnapshot     sensors       = SensorSnapshot.getInstance();
+
+    private boolean                  flip;
+
+    private double                   startTime;
+
+    // Constructor
+    public FollowCompiledPathCommand(DriveBaseSubsystem subsystem, CompiledTrajectories new_trajectories,
+            int new_pathId) {
+        super();
+        driveBaseSubsystem = subsystem;
+        sampler            = new TrajectorySampler(new_trajectories, new_pathId);
+        addRequirements(driveBaseSubsystem);
+    }
+
+    // Called when the command is initially scheduled.
+    @Override
+    public void initialize() {
+        super.initialize();
+        var alliance = DriverStation.getAlliance();
+        flip      = alliance.isPresent() && alliance.get() == Alliance.Red;
+        startTime = sensors.getTimestamp();
+        sampler.reset();
+    }
+
+    // Called every time the scheduler runs while the command is scheduled.
+    @Override
+    public void execute() {
+        super.execute();
+        Pose2d current_pose = driveBaseSubsystem.getPose();
+        State  reference    = sampler.sample(sensors.getTimestamp() - startTime, flip);
+
+        double x_speed = reference.vx + kTranslationP * (reference.x - current_pose.getX());
+        double y_speed = reference.vy + kTranslationP * (reference.y - current_pose.getY());
+        double r_speed = reference.omega
+                + kRotationP * MathUtil.angleModulus(reference.heading - current_pose.getRotation().getRadians());
+        driveBaseSubsystem.driveField(x_speed, y_speed, r_speed);
+    }
+
+    // Called once the command ends or is interrupted. Only stops driving, the
+    // next path of an auto starts from here so the wheels aren't locked.
+    @Override
+    public void end(boolean interrupted) {
+        super.end(interrupted);
+        driveBaseSubsystem.driveField(0.0, 0.0, 0.0);
+    }
+
+    // Returns true when the command should end.
+    @Override
+    public boolean isFinished() {
+        super.isFinished();
+        return sensors.getTimestamp() - startTime >= sampler.getTotalTime();
+    }
+}
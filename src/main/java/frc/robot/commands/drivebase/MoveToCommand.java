@@ -1,14 +1,24 @@
 package frc.robot.commands.drivebase;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.helpers.GridPathfinder;
 import frc.robot.subsystems.DriveBaseSubsystem;
 
 //
-// Command to move the robot to a new pose
-//
+// Command to move the robot to a new pose, going around obstacles on the
+// navgrid when the pathfinder is available. The speed is profiled over the
+// whole path, so the robot keeps moving through the corners and only slows
+// down for the final target.
 //
 public class MoveToCommand extends Command {
+    // Distance from a waypoint at which we start heading for the next one
+    private static final double      kWaypointTolerance = 0.3;
+
     /**
      *
      */
@@ -16,6 +26,14 @@ public class MoveToCommand extends Command {
 
     private final Pose2d             targetPose;
 
+    private GridPathfinder           pathfinder;
+
+    private List<Translation2d>      waypoints;
+
+    private int                      waypoint;
+
+    private int                      obstacleVersion;
+
     // Constructor
     public MoveToCommand(DriveBaseSubsystem subsystem, Pose2d new_pose) {
         super();
@@ -28,13 +46,39 @@ public class MoveToCommand extends Command {
     @Override
     public void initialize() {
         super.initialize();
-        driveBaseSubsystem.setTarget(targetPose, this.driveBaseSubsystem.getPose());
+        Pose2d current_pose = driveBaseSubsystem.getPose();
+
+        pathfinder = driveBaseSubsystem.getPathfinder();
+        waypoints  = null;
+        if (pathfinder != null) {
+            waypoints       = pathfinder.findPath(current_pose.getTranslation(), targetPose.getTranslation());
+            obstacleVersion = pathfinder.getObstacleVersion();
+        }
+        if (waypoints == null || waypoints.size() < 2) {
+            // No pathfinder or no path, drive straight at the target like we used to
+            waypoints = List.of(current_pose.getTranslation(), targetPose.getTranslation());
+        }
+
+        waypoint = 1;
+        driveBaseSubsystem.setTarget(targetPose.getRotation(), current_pose.getRotation());
+        driveBaseSubsystem.setTarget(waypoints.get(waypoint), current_pose.getTranslation(), lengthAfter(waypoint));
     }
 
     // Called every time the scheduler runs while the command is scheduled.
     @Override
     public void execute() {
         super.execute();
+        Translation2d current_position = driveBaseSubsystem.getPose().getTranslation();
+
+        if (pathfinder != null && pathfinder.getObstacleVersion() != obstacleVersion) {
+            replan(current_position);
+        }
+
+        if (waypoint < waypoints.size() - 1
+                && current_position.getDistance(waypoints.get(waypoint)) < kWaypointTolerance) {
+            waypoint++;
+            driveBaseSubsystem.setTarget(waypoints.get(waypoint), current_position, lengthAfter(waypoint));
+        }
         driveBaseSubsystem.driveToTarget();
     }
 
@@ -49,6 +93,48 @@ public class MoveToCommand extends Command {
     @Override
     public boolean isFinished() {
         super.isFinished();
-        return driveBaseSubsystem.getHasTarget();
+        return waypoint == waypoints.size() - 1 && driveBaseSubsystem.getHasTarget();
+    }
+
+    /**
+     * Repairs the rest of the path after the obstacles changed. Only the blocked
+     * parts are searched again. The target is set again even if the waypoint we
+     * are heading for didn't move, because the length of the path after it may
+     * have changed; the robot keeps its speed.
+     *
+     * @param current_position of the robot
+     * @return void
+     */
+    private void replan(Translation2d current_position) {
+        obstacleVersion = pathfinder.getObstacleVersion();
+
+        List<Translation2d> remaining = new ArrayList<>();
+        remaining.add(current_position);
+        remaining.addAll(waypoints.subList(waypoint, waypoints.size()));
+
+        List<Translation2d> repaired = pathfinder.repair(remaining);
+        if (repaired == remaining) {
+            return;
+        }
+        if (repaired.size() < 2) {
+            // Boxed in, stop here rather than drive through an obstacle
+            repaired = List.of(current_position, current_position);
+        }
+
+        waypoints = repaired;
+        waypoint  = 1;
+        driveBaseSubsystem.setTarget(waypoints.get(waypoint), current_position, lengthAfter(waypoint));
+    }
+
+    /**
+     * @param index of a waypoint
+     * @return path length in meters from the waypoint to the end of the path
+     */
+    private double lengthAfter(int index) {
+        double length = 0.0;
+        for (int i = index + 1; i < waypoints.size(); i++) {
+            length += waypoints.get(i - 1).getDistance(waypoints.get(i));
+        }
+        return length;
     }
-}
\ No newline at end of file
+}
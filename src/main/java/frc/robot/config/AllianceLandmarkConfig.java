@@ -1,8 +1,10 @@
 package frc.robot.config;
 
 import edu.wpi.first.epilogue.Logged;
+import frc.robot.processor.ConfigBinding;
 
 @Logged
+@ConfigBinding
 public class AllianceLandmarkConfig {
     public double     joystickInversion;
 
@@ -2,11 +2,14 @@ package frc.robot.config;
 
 import edu.wpi.first.epilogue.Logged;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import frc.robot.processor.ConfigBinding;
 
 @Logged
+@ConfigBinding
 public class AllianceLandmarksConfig {
     public AllianceLandmarkConfig blueAlliance;
 
+    // Only joystickInversion is used, red poses are mirrored from blueAlliance
     public AllianceLandmarkConfig redAlliance;
 
     public AllianceLandmarkConfig getAllianceLandmarkConfig(Alliance alliance) {
@@ -0,0 +1,144 @@
+package frc.robot.config;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import javax.naming.ConfigurationException;
+
+import com.pathplanner.lib.config.RobotConfig;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.helpers.GridPathfinder;
+import frc.robot.helpers.ParallelInit;
+import swervelib.parser.SwerveParser;
+
+/**
+ * Reads every deploy directory JSON file at once, at the very start of
+ * Robot(), instead of one after another as each subsystem is built. Each file
+ * is parsed on a {@link ParallelInit} thread and timed in the startup profile
+ * under Config/, and subsystems get the parsed objects from the getters here.
+ * A getter only waits if its file isn't done yet.
+ * <p>
+ * Our own files go through ConfigurationLoader's shared mapper and the
+ * StartupCache. YAGSL and PathPlanner parse their files internally, those are
+ * only moved off the main thread.
+ */
+public class ConfigBundle {
+    private static CompletableFuture<DriveBaseSubsystemConfig> driveBaseSubsystem;
+
+    private static CompletableFuture<AllianceLandmarksConfig>  allianceLandmarks;
+
+    private static CompletableFuture<SwerveParser>             swerve;
+
+    private static CompletableFuture<RobotConfig>              robotConfig;
+
+    private static CompletableFuture<GridPathfinder>           navgrid;
+
+    /**
+     * Loads one file, may throw
+     *
+     * @param <T> type the file is parsed into
+     */
+    @FunctionalInterface
+    private interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    private ConfigBundle() {
+    }
+
+    /**
+     * Starts reading every file. Returns right away, calling it again does
+     * nothing.
+     *
+     * @return void
+     */
+    public static synchronized void start() {
+        if (driveBaseSubsystem != null) {
+            return;
+        }
+        driveBaseSubsystem = supply("drivebasesubsystem.json", () -> ConfigService.watch("drivebasesubsystem.json",
+                DriveBaseSubsystemConfig.class, DriveBaseSubsystemConfig::isValid));
+        allianceLandmarks  = supply("alliancelandmarks.json",
+                () -> ConfigurationLoader.load("alliancelandmarks.json", AllianceLandmarksConfig.class));
+        swerve             = supply("swerve",
+                () -> new SwerveParser(new File(Filesystem.getDeployDirectory(), "swerve")));
+        robotConfig        = supply("pathplanner/settings.json", RobotConfig::fromGUISettings);
+        navgrid            = supply(GridPathfinder.kFileName, GridPathfinder::load);
+    }
+
+    /**
+     * @return drivebasesubsystem.json, also watched by the ConfigService
+     * @throws ConfigurationException if the file can't be loaded or isn't valid
+     */
+    public static DriveBaseSubsystemConfig getDriveBaseSubsystemConfig() throws ConfigurationException {
+        start();
+        return join(driveBaseSubsystem, "drivebasesubsystem.json");
+    }
+
+    /**
+     * @return alliancelandmarks.json
+     * @throws ConfigurationException if the file can't be loaded
+     */
+    public static AllianceLandmarksConfig getAllianceLandmarksConfig() throws ConfigurationException {
+        start();
+        return join(allianceLandmarks, "alliancelandmarks.json");
+    }
+
+    /**
+     * @return YAGSL's parser with the swerve directory read, ready to create the
+     *         swerve drive on the main thread
+     * @throws ConfigurationException if the files can't be read
+     */
+    public static SwerveParser getSwerveParser() throws ConfigurationException {
+        start();
+        return join(swerve, "swerve");
+    }
+
+    /**
+     * @return PathPlanner's robot config from its GUI settings, or null if it
+     *         couldn't be loaded
+     */
+    public static RobotConfig getRobotConfig() {
+        start();
+        return joinOrNull(robotConfig);
+    }
+
+    /**
+     * @return the pathfinder with the navgrid loaded, or null if it couldn't be
+     *         loaded
+     */
+    public static GridPathfinder getNavgrid() {
+        start();
+        return joinOrNull(navgrid);
+    }
+
+    private static <T> CompletableFuture<T> supply(String fileName, Loader<T> loader) {
+        return ParallelInit.supply("Config/" + fileName, () -> {
+            try {
+                return loader.load();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private static <T> T join(CompletableFuture<T> future, String fileName) throws ConfigurationException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            e.getCause().printStackTrace();
+            throw new ConfigurationException("Failed to load configuration file: " + fileName);
+        }
+    }
+
+    private static <T> T joinOrNull(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            e.getCause().printStackTrace();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package frc.robot.config;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import javax.naming.ConfigurationException;
+
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Reloads configuration files while the robot is running. A background thread
+ * watches the deploy directory, and when a watched file changes it parses and
+ * validates it, then hands the new config to the robot thread. The robot
+ * thread swaps it in at the start of the next loop in {@link #update()}, so a
+ * subsystem never sees two different configs during one loop.
+ * <p>
+ * Copy a new file over the old one on the robot (scp or the WPILib deploy
+ * directory) and the change shows up within a loop or two, no restart needed.
+ * A file that doesn't parse or validate is logged and ignored, the old config
+ * stays in use. Only files directly in the deploy directory can be watched.
+ * <p>
+ * Nothing reads the configs from here. A swapped in config is published to
+ * NetworkTables and every TunableNumber reads its value back right away, on
+ * the robot thread, so the subsystems get the whole file at once when
+ * TunableNumber.update() runs their callbacks.
+ */
+public class ConfigService {
+    // Editors and scp write a file in pieces, wait for them to finish
+    private static final long                      kSettleMs  = 100;
+
+    private static final String                    kClassName = "ConfigService";
+
+    private static final Map<Class<?>, Watched<?>> watched    = new ConcurrentHashMap<>();
+
+    private static Thread                          thread;
+
+    /**
+     * One watched configuration file
+     *
+     * @param <TConfig> type the file maps to
+     */
+    private static class Watched<TConfig> {
+        private final String             fileName;
+
+        private final Class<TConfig>     classOfT;
+
+        private final Predicate<TConfig> validator;
+
+        private volatile TConfig         pending;
+
+        private TConfig                  current;
+
+        private Watched(String new_fileName, Class<TConfig> new_classOfT, Predicate<TConfig> new_validator,
+                TConfig config) {
+            fileName  = new_fileName;
+            classOfT  = new_classOfT;
+            validator = new_validator;
+            pending   = config;
+            current   = config;
+        }
+
+        /**
+         * Parses and validates the file, on the watcher thread
+         *
+         * @return void
+         */
+        private void reload() {
+            try {
+                TConfig config = ConfigurationLoader.parse(fileName, classOfT);
+                if (validator.test(config)) {
+                    pending = config;
+                    logInfo("Reloaded " + fileName);
+                } else {
+                    logError(fileName + " failed validation, keeping the old config");
+                }
+            } catch (ConfigurationException e) {
+                logError(fileName + " didn't parse, keeping the old config: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Makes the latest reload current, on the robot thread
+         *
+         * @return void
+         */
+        private void swap() {
+            TConfig latest = pending;
+            if (latest != current) {
+                current = latest;
+                try {
+                    ConfigurationLoader.publish(current);
+                    TunableNumber.refreshAll();
+                } catch (ConfigurationException e) {
+                    logError("Failed to publish " + fileName + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private ConfigService() {
+    }
+
+    /**
+     * Loads a configuration file like {@link ConfigurationLoader#load} and keeps
+     * it up to date as the file changes. Changes are published like the file was
+     * at startup, so read the values through TunableNumbers to see them. Each
+     * class can only be watched from one file.
+     *
+     * @param <TConfig> The Java type to map the configuration file
+     * @param fileName  The name of the JSON file in the deploy directory
+     * @param classOfT  The class type to map the configuration file to
+     * @param validator returns false for a config that shouldn't be used
+     * @return the config as loaded now
+     * @throws ConfigurationException if the file can't be loaded or isn't valid
+     *                                at startup
+     */
+    public static <TConfig> TConfig watch(String fileName, Class<TConfig> classOfT, Predicate<TConfig> validator)
+            throws ConfigurationException {
+        TConfig config = ConfigurationLoader.load(fileName, classOfT);
+        if (!validator.test(config)) {
+            throw new ConfigurationException("Invalid configuration file: " + fileName);
+        }
+
+        watched.put(classOfT, new Watched<>(fileName, classOfT, validator, config));
+        startWatching();
+        return config;
+    }
+
+    /**
+     * Publishes every config that was reloaded since the last loop. Called by
+     * Robot at the start of every loop, before the tunables are updated.
+     *
+     * @return void
+     */
+    public static void update() {
+        for (Watched<?> watchedConfig : watched.values()) {
+            watchedConfig.swap();
+        }
+    }
+
+    private static synchronized void startWatching() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(ConfigService::watchDeployDirectory, "ConfigService");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Waits for files in the deploy directory to change and reloads the watched
+     * ones, runs on the watcher thread until the robot program exits
+     *
+     * @return void
+     */
+    private static void watchDeployDirectory() {
+        Path directory = Filesystem.getDeployDirectory().toPath();
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+            while (true) {
+                WatchKey key = watcher.take();
+                Thread.sleep(kSettleMs);
+
+                // Collect everything that changed while we waited, so each file is only
+                // parsed once
+                Set<String> changed  = new HashSet<>();
+                boolean     overflow = false;
+                for (; key != null; key = watcher.poll()) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            overflow = true;
+                        } else {
+                            changed.add(event.context().toString());
+                        }
+                    }
+                    key.reset();
+                }
+
+                for (Watched<?> watchedConfig : watched.values()) {
+                    if (overflow || changed.contains(watchedConfig.fileName)) {
+                        watchedConfig.reload();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logError("Can't watch " + directory + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logInfo("Stopped watching " + directory);
+    }
+
+    private static void logInfo(String message) {
+        System.out.println("\u001B[37mINFO: " + kClassName + ": " + message + "\u001B[0m");
+    }
+
+    private static void logError(String message) {
+        System.err.println("\u001B[31mERROR: " + kClassName + ": " + message + "\u001B[0m");
+    }
+}
@@ -1,9 +1,14 @@
 package frc.robot.config;
 
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import javax.naming.ConfigurationException;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.TypeFactory;
@@ -14,9 +19,20 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 @Logged
 public class ConfigurationLoader {
+    // Set to false to use Jackson databind and reflection for every class, to
+    // compare boot times
+    public static final boolean       kGeneratedBindings = true;
+
+    private static final JsonFactory  jsonFactory        = new JsonFactory();
+
+    // Shared by everything that reads deploy files with databind, creating a
+    // mapper is expensive and it's thread safe once configured
+    private static final ObjectMapper objectMapper       = new ObjectMapper(jsonFactory);
 
     /**
-     * Loads a configuration file from the deploy directory and maps it to a type
+     * Loads a configuration file from the deploy directory and maps it to a type.
+     * Classes with a generated binding come from the StartupCache when the file
+     * hasn't changed since the last boot.
      *
      * @param <TConfig> The Java type to map the configuration file
      * @param fileName  The name of the JSON file to load
@@ -25,22 +41,65 @@ public class ConfigurationLoader {
      * @throws ConfigurationException
      */
     public static <TConfig> TConfig load(String fileName, Class<TConfig> classOfT) throws ConfigurationException {
-        try {
-            // Generic and Mapping Setup
-            JavaType     type            = TypeFactory.defaultInstance().constructType(classOfT);
-            ObjectMapper om              = new ObjectMapper();
+        TConfig config;
+        if (kGeneratedBindings && ConfigBindings.hasBinding(classOfT)) {
+            config = StartupCache.load(fileName, new StartupCache.Codec<TConfig>() {
+                @Override
+                public void write(TConfig value, DataOutputStream out) throws IOException {
+                    ConfigBindings.write(value, out);
+                }
+
+                @Override
+                public TConfig read(ByteBuffer in) {
+                    return ConfigBindings.read(classOfT, in);
+                }
+            }, () -> parse(fileName, classOfT));
+        } else {
+            config = parse(fileName, classOfT);
+        }
+        publish(config);
+        return config;
+    }
 
+    /**
+     * @return the mapper to use for any other JSON in the deploy directory
+     */
+    public static ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Reads a configuration file from the deploy directory without publishing it
+     * to the dashboard
+     *
+     * @param <TConfig> The Java type to map the configuration file
+     * @param fileName  The name of the JSON file to load
+     * @param classOfT  The class type to map the configuration file to
+     * @return the parsed configuration
+     * @throws ConfigurationException
+     */
+    public static <TConfig> TConfig parse(String fileName, Class<TConfig> classOfT) throws ConfigurationException {
+        try {
             // File setup
-            File         deployDirectory = Filesystem.getDeployDirectory();
-            File         configFile      = new File(deployDirectory, fileName);
+            File deployDirectory = Filesystem.getDeployDirectory();
+            File configFile      = new File(deployDirectory, fileName);
 
-            // Map the config to the class type and return
-            TConfig      config          = om.readValue(configFile, type);
+            // Classes marked @ConfigBinding have a generated reader
+            if (kGeneratedBindings) {
+                try (JsonParser parser = jsonFactory.createParser(configFile)) {
+                    parser.nextToken();
+                    TConfig config = ConfigBindings.read(classOfT, parser);
+                    if (config != null) {
+                        return config;
+                    }
+                }
+            }
 
-            // Use reflection to iterate over each public field of TConfig
-            iterateFields(classOfT, config, classOfT.getSimpleName());
+            // Generic and Mapping Setup
+            JavaType type = TypeFactory.defaultInstance().constructType(classOfT);
 
-            return config;
+            // Map the config to the class type and return
+            return objectMapper.readValue(configFile, type);
         } catch (Exception e) {
             e.printStackTrace();
 
@@ -48,6 +107,30 @@ public class ConfigurationLoader {
         }
     }
 
+    /**
+     * Publishes every public field of a configuration to the dashboard, under
+     * the class name
+     *
+     * @param <TConfig> The Java type of the configuration
+     * @param config    The configuration to publish
+     * @return void
+     * @throws ConfigurationException
+     */
+    public static <TConfig> void publish(TConfig config) throws ConfigurationException {
+        try {
+            if (kGeneratedBindings && ConfigBindings.publish(config)) {
+                return;
+            }
+
+            // Use reflection to iterate over each public field of TConfig
+            iterateFields(config.getClass(), config, config.getClass().getSimpleName());
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+
+            throw new ConfigurationException("Failed to publish configuration: " + config.getClass().getSimpleName());
+        }
+    }
+
     private static <TConfig> void iterateFields(Class<?> classOfT, TConfig config, String parentFieldName)
             throws IllegalAccessException {
         for (var field : classOfT.getFields()) {
@@ -2,9 +2,10 @@ package frc.robot.config;
 
 import edu.wpi.first.epilogue.Logged;
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.processor.ConfigBinding;
 
 @Logged
+@ConfigBinding
 public class DriveBaseSubsystemConfig {
 
     public double maximumSpeedInFeet;
@@ -17,32 +18,18 @@ public class DriveBaseSubsystemConfig {
 
     public double thetaControllerPidKd;
 
-    public double getThetaControllerTolerance() {
-        var v = SmartDashboard.getNumber("DriveBaseSubsystemConfig/thetaControllerTolerance", thetaControllerTolerance);
-        return v;
-    }
-
-    public double getThetaControllerPidKp() {
-        var v = SmartDashboard.getNumber("DriveBaseSubsystemConfig/thetaControllerPidKp", thetaControllerPidKp);
-        return v;
-    }
-
-    public double getThetaControllerPidKi() {
-        var v = SmartDashboard.getNumber("DriveBaseSubsystemConfig/thetaControllerPidKi", thetaControllerPidKi);
-        return v;
-    }
-
-    public double getThetaControllerPidKd() {
-        var v = SmartDashboard.getNumber("DriveBaseSubsystemConfig/thetaControllerPidKd", thetaControllerPidKd);
-        return v;
-    }
-
-    public double getMaximumSpeedInFeet() {
-        var v = SmartDashboard.getNumber("DriveBaseSubsystemConfig/maximumSpeedInFeet", maximumSpeedInFeet);
-        return v;
+    public double getMaximumSpeedInMeters() {
+        return Units.feetToMeters(maximumSpeedInFeet);
     }
 
-    public double getMaximumSpeedInMeters() {
-        return Units.feetToMeters(getMaximumSpeedInFeet());
+    /**
+     * Checks the values are usable before a reloaded file replaces the running
+     * config
+     *
+     * @return true if every value is in range
+     */
+    public boolean isValid() {
+        return maximumSpeedInFeet > 0.0 && thetaControllerTolerance > 0.0 && thetaControllerPidKp >= 0.0
+                && thetaControllerPidKi >= 0.0 && thetaControllerPidKd >= 0.0;
     }
 }
@@ -3,8 +3,10 @@ package frc.robot.config;
 import edu.wpi.first.epilogue.Logged;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.processor.ConfigBinding;
 
 @Logged
+@ConfigBinding
 public class PoseConfig {
     public double x;
 
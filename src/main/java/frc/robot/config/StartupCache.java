@@ -0,0 +1,269 @@
+package frc.robot.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Keeps the parsed form of deploy directory files in one binary file next to
+ * the robot program, so later boots memory map it instead of parsing JSON.
+ * An entry is only used while its source file's checksum still matches, and
+ * the whole cache is dropped when the robot program changes, so a deploy
+ * never reads data written by older code.
+ * <p>
+ * File layout (big endian):
+ *
+ * <pre>
+ * int magic, int version, long programStamp, int entryCount
+ * entryCount x { short nameLength, byte[] name, long sourceCrc, float parseMs,
+ *                int dataCrc, int length, byte[] data }
+ * </pre>
+ *
+ * Loaders call {@link #load} from any thread during startup, then Robot calls
+ * {@link #save()} once at the end of its constructor to write any misses and
+ * report the time saved.
+ */
+public class StartupCache {
+    public static final String              kFileName = "startupcache.bin";
+
+    public static final int                 kMagic    = 0x4F425343; // "OBSC"
+
+    public static final int                 kVersion  = 1;
+
+    private static final Map<String, Entry> cached    = new HashMap<>();
+
+    private static final Map<String, Entry> entries   = new ConcurrentHashMap<>();
+
+    private static boolean                  opened    = false;
+
+    private static volatile boolean         dirty     = false;
+
+    private static double                   savedMs   = 0.0;
+
+    private static int                      hits      = 0;
+
+    private static int                      misses    = 0;
+
+    /**
+     * Writes a parsed value in binary and reads it back
+     *
+     * @param <T> type of the parsed value
+     */
+    public interface Codec<T> {
+        void write(T value, DataOutputStream out) throws IOException;
+
+        T read(ByteBuffer in) throws IOException;
+    }
+
+    /**
+     * Parses the source file the slow way
+     *
+     * @param <T> type of the parsed value
+     * @param <E> exception the parser throws
+     */
+    @FunctionalInterface
+    public interface Parser<T, E extends Exception> {
+        T parse() throws E;
+    }
+
+    private record Entry(long sourceCrc, float parseMs, ByteBuffer data) {
+    }
+
+    private StartupCache() {
+    }
+
+    /**
+     * Returns a deploy directory file's parsed value from the cache, or parses it
+     * and remembers the result for the next boot
+     *
+     * @param <T>      type of the parsed value
+     * @param <E>      exception the parser throws
+     * @param fileName of the source file, relative to the deploy directory
+     * @param codec    to read and write the value
+     * @param parser   to use when the cache is missing or out of date
+     * @return the parsed value
+     * @throws E if the cache can't be used and the parser fails
+     */
+    public static <T, E extends Exception> T load(String fileName, Codec<T> codec, Parser<T, E> parser) throws E {
+        long sourceCrc;
+        try {
+            sourceCrc = checksum(Files.readAllBytes(new File(Filesystem.getDeployDirectory(), fileName).toPath()));
+        } catch (IOException e) {
+            // Let the parser report the missing file
+            return parser.parse();
+        }
+
+        Entry entry = open().get(fileName);
+        if (entry != null && entry.sourceCrc() == sourceCrc) {
+            long start = System.nanoTime();
+            try {
+                T value = codec.read(entry.data().duplicate());
+                entries.put(fileName, entry);
+                hit(entry.parseMs() - (System.nanoTime() - start) / 1e6);
+                return value;
+            } catch (IOException | RuntimeException e) {
+                System.out.println("StartupCache: " + fileName + " entry is unreadable, parsing it instead");
+            }
+        }
+
+        long start   = System.nanoTime();
+        T    value   = parser.parse();
+        long parseNs = System.nanoTime() - start;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                codec.write(value, out);
+            }
+            entries.put(fileName, new Entry(sourceCrc, (float) (parseNs / 1e6), ByteBuffer.wrap(bytes.toByteArray())));
+            dirty = true;
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+        miss();
+        return value;
+    }
+
+    /**
+     * Writes the cache if anything was parsed this boot, and reports how much
+     * parsing the cache saved. Call once at the end of Robot's constructor.
+     *
+     * @return void
+     */
+    public static synchronized void save() {
+        if (dirty) {
+            File file = getFile();
+            File temp = new File(file.getPath() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp.toPath()))) {
+                out.writeInt(kMagic);
+                out.writeInt(kVersion);
+                out.writeLong(programStamp());
+                out.writeInt(entries.size());
+                for (var named : entries.entrySet()) {
+                    Entry  entry = named.getValue();
+                    byte[] name  = named.getKey().getBytes(StandardCharsets.UTF_8);
+                    byte[] data  = new byte[entry.data().remaining()];
+                    entry.data().duplicate().get(data);
+                    out.writeShort(name.length);
+                    out.write(name);
+                    out.writeLong(entry.sourceCrc());
+                    out.writeFloat(entry.parseMs());
+                    out.writeInt((int) checksum(data));
+                    out.writeInt(data.length);
+                    out.write(data);
+                }
+                out.close();
+
+                // A reboot part way through writing leaves the old cache in place
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                dirty = false;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        System.out.printf("StartupCache: %d hits, %d misses, saved %.1f ms of parsing%n", hits, misses, savedMs);
+        SmartDashboard.putNumber("Boot/StartupCacheHits", hits);
+        SmartDashboard.putNumber("Boot/StartupCacheMisses", misses);
+        SmartDashboard.putNumber("Boot/StartupCacheSavedMs", savedMs);
+    }
+
+    private static synchronized void hit(double new_savedMs) {
+        hits++;
+        savedMs += Math.max(0.0, new_savedMs);
+    }
+
+    private static synchronized void miss() {
+        misses++;
+    }
+
+    /**
+     * Maps the cache file the first time it's needed
+     *
+     * @return entries from the last boot, empty if there's no usable cache
+     */
+    private static synchronized Map<String, Entry> open() {
+        if (opened) {
+            return cached;
+        }
+        opened = true;
+
+        File file = getFile();
+        if (!file.exists()) {
+            return cached;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != kMagic || buffer.getInt() != kVersion) {
+                System.out.println("StartupCache: " + kFileName + " is from another version, ignoring it");
+                return cached;
+            }
+            if (buffer.getLong() != programStamp()) {
+                System.out.println("StartupCache: robot program changed, ignoring " + kFileName);
+                return cached;
+            }
+
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[buffer.getShort()];
+                buffer.get(name);
+                long       sourceCrc = buffer.getLong();
+                float      parseMs   = buffer.getFloat();
+                int        dataCrc   = buffer.getInt();
+                int        length    = buffer.getInt();
+                ByteBuffer data      = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+
+                byte[] bytes = new byte[length];
+                data.duplicate().get(bytes);
+                if ((int) checksum(bytes) == dataCrc) {
+                    cached.put(new String(name, StandardCharsets.UTF_8), new Entry(sourceCrc, parseMs, data));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("StartupCache: " + kFileName + " is damaged, ignoring it");
+            cached.clear();
+        }
+        return cached;
+    }
+
+    private static File getFile() {
+        return new File(Filesystem.getOperatingDirectory(), kFileName);
+    }
+
+    /**
+     * Identifies the robot program that wrote the cache, from the size and time
+     * of the jar (or classes directory in simulation)
+     *
+     * @return a stamp that changes on every deploy
+     */
+    private static long programStamp() {
+        try {
+            File program = new File(StartupCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            return program.lastModified() * 31 + program.length();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,140 @@
+package frc.robot.config;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.wpi.first.networktables.DoubleEntry;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * A number that can be changed from the dashboard while the robot runs, like a
+ * PID gain. The value is cached in a field, so {@link #get()} is a plain field
+ * read and can be called as often as needed.
+ * <p>
+ * A NetworkTables listener notices dashboard changes on its own thread and only
+ * leaves the new value pending. {@link #update()} copies pending values into
+ * place and runs the change callbacks on the robot thread at the start of the
+ * next loop, so a value never changes partway through a loop and a controller
+ * never mixes an old gain with a new one.
+ */
+public class TunableNumber {
+    private static final Queue<TunableNumber> changed   = new ConcurrentLinkedQueue<>();
+
+    private static final List<Runnable>       toRun     = new ArrayList<>();
+
+    private static final List<TunableNumber>  all       = new ArrayList<>();
+
+    private final DoubleEntry                 entry;
+
+    private final List<Runnable>              callbacks = new ArrayList<>();
+
+    private final AtomicBoolean               queued    = new AtomicBoolean();
+
+    private volatile double                   pending;
+
+    private double                            value;
+
+    /**
+     * Creates the tunable and publishes its starting value if the dashboard
+     * doesn't have one yet. A value the dashboard already has, or one persisted
+     * from an earlier run, is used instead. Create it on the robot thread.
+     *
+     * @param key          under SmartDashboard, like
+     *                     DriveBaseSubsystemConfig/thetaControllerPidKp
+     * @param initialValue to use if the dashboard has none
+     */
+    public TunableNumber(String key, double initialValue) {
+        NetworkTableInstance instance = NetworkTableInstance.getDefault();
+        entry = instance.getDoubleTopic("/SmartDashboard/" + key).getEntry(initialValue);
+        entry.setDefault(initialValue);
+        value   = entry.get();
+        pending = value;
+        all.add(this);
+
+        // kImmediate also reports the value there is now, in case it changed since
+        // the read above
+        instance.addListener(entry, EnumSet.of(NetworkTableEvent.Kind.kImmediate, NetworkTableEvent.Kind.kValueAll),
+                event -> {
+                    if (event.valueData != null && event.valueData.value.isDouble()) {
+                        pending = event.valueData.value.getDouble();
+                        if (queued.compareAndSet(false, true)) {
+                            changed.add(this);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * @return the value as of the start of this loop
+     */
+    public double get() {
+        return value;
+    }
+
+    /**
+     * Adds something to do on the robot thread when the value changes, like
+     * re-applying PID gains
+     *
+     * @param callback to run
+     * @return this, so the call can be chained onto the constructor
+     */
+    public TunableNumber onChange(Runnable callback) {
+        callbacks.add(callback);
+        return this;
+    }
+
+    /**
+     * Reads every tunable's value from NetworkTables right now, on the robot
+     * thread, instead of waiting for the listeners. ConfigService calls it after
+     * publishing a reloaded file, so every value from the file is in place for
+     * the same loop. The callbacks still run in {@link #update()}.
+     *
+     * @return void
+     */
+    public static void refreshAll() {
+        for (int i = 0; i < all.size(); i++) {
+            TunableNumber tunable = all.get(i);
+            double        latest  = tunable.entry.get();
+            if (latest != tunable.value) {
+                tunable.value = latest;
+                tunable.addCallbacks();
+            }
+        }
+    }
+
+    /**
+     * Copies in the values that changed since the last loop and runs the
+     * callbacks of every tunable that changed, each callback once even if
+     * several of its tunables changed. Called by Robot at the start of every
+     * loop.
+     *
+     * @return void
+     */
+    public static void update() {
+        for (TunableNumber tunable = changed.poll(); tunable != null; tunable = changed.poll()) {
+            tunable.queued.set(false);
+            double latest = tunable.pending;
+            if (latest != tunable.value) {
+                tunable.value = latest;
+                tunable.addCallbacks();
+            }
+        }
+        for (int i = 0; i < toRun.size(); i++) {
+            toRun.get(i).run();
+        }
+        toRun.clear();
+    }
+
+    private void addCallbacks() {
+        for (Runnable callback : callbacks) {
+            if (!toRun.contains(callback)) {
+                toRun.add(callback);
+            }
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package frc.robot.helpers;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pathplanner.lib.auto.NamedCommands;
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.path.PathPlannerPath;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.robot.config.ConfigurationLoader;
+
+/**
+ * Replaces AutoBuilder.buildAutoChooser(), which loads every auto in
+ * RobotContainer's constructor. Finding the autos, reading their files and
+ * waiting on {@link PathCache} for their paths happens on a background thread.
+ * The commands are then built on the main thread, one per disabled loop,
+ * because composing commands registers them with the CommandScheduler which
+ * isn't thread safe. Each auto shows up in the chooser once it is built.
+ * <p>
+ * Autos that only follow paths one after another are driven from the
+ * trajectories compiled by the compileTrajectories task when they are in the
+ * compiled file. The rest are built from the auto file the way PathPlannerAuto
+ * builds them, except every path comes from {@link PathCache}, so nothing is
+ * parsed or flipped after enable. Only autos this can't build, like Choreo
+ * autos, are PathPlannerAutos.
+ * <p>
+ * {@link #getSelected()} never waits on loading, so autonomousInit can't
+ * stall. The chooser only lists autos that are built, whatever is selected is
+ * complete; an auto that is still loading when the robot is enabled can't be
+ * picked until the next time it is disabled. Boot to enable is normally
+ * minutes, and loading takes a few seconds.
+ */
+public class AsyncAutoChooser {
+    private final SendableChooser<Command>  chooser  = new SendableChooser<>();
+
+    // Autos whose files have been read, waiting to be built on the main thread
+    private final Queue<String>             ready    = new ConcurrentLinkedQueue<>();
+
+    // Autos that are nothing but a sequence of paths
+    private final Set<String>               pathOnly = ConcurrentHashMap.newKeySet();
+
+    // The command of every auto that has been read, by auto name
+    private final Map<String, JsonNode>     autos    = new ConcurrentHashMap<>();
+
+    private final Function<String, Command> compiledAutos;
+
+    private final Function<String, Command> paths;
+
+    private final Consumer<Pose2d>          resetPose;
+
+    private final CompletableFuture<Void>   discovery;
+
+    private final long                      start    = System.nanoTime();
+
+    private double                          buildMs  = 0.0;
+
+    private int                             built    = 0;
+
+    private boolean                         finished = false;
+
+    /**
+     * Puts an empty chooser on the dashboard and starts finding autos in the
+     * background
+     *
+     * @param name              of the chooser on the dashboard
+     * @param new_compiledAutos builds the command for a compiled auto by name, or
+     *                          returns null if it wasn't compiled
+     * @param new_paths         builds the command to follow a cached path by name
+     * @param new_resetPose     resets odometry, for autos that start by resetting
+     *                          it
+     */
+    public AsyncAutoChooser(String name, Function<String, Command> new_compiledAutos,
+            Function<String, Command> new_paths, Consumer<Pose2d> new_resetPose) {
+        compiledAutos = new_compiledAutos;
+        paths         = new_paths;
+        resetPose     = new_resetPose;
+        chooser.setDefaultOption("None", Commands.none());
+        SmartDashboard.putData(name, chooser);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AsyncAutoChooser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        discovery = CompletableFuture.runAsync(this::discover, executor);
+        executor.shutdown();
+    }
+
+    /**
+     * Builds the next auto that is ready. Call every loop while disabled.
+     *
+     * @return void
+     */
+    public void periodic() {
+        if (finished) {
+            return;
+        }
+        String name = ready.poll();
+        if (name != null) {
+            build(name);
+        } else if (discovery.isDone()) {
+            finish();
+        }
+    }
+
+    /**
+     * Returns the selected auto without waiting for the autos still loading
+     *
+     * @return the selected auto command
+     */
+    public Command getSelected() {
+        if (!finished) {
+            System.out.println("AsyncAutoChooser: enabled before every auto was loaded, only " + built
+                    + " could be selected");
+        }
+        return chooser.getSelected();
+    }
+
+    /**
+     * Finds every .auto file and reads it, runs on the background thread
+     *
+     * @return void
+     */
+    private void discover() {
+        File[] files = new File(Filesystem.getDeployDirectory(), "pathplanner/autos")
+                .listFiles((dir, name) -> name.endsWith(".auto"));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+
+        // The autos follow these paths, have them parsed or mapped before building
+        PathCache.waitUntilLoaded();
+        CompiledTrajectories.getInstance();
+
+        ObjectMapper mapper = ConfigurationLoader.getObjectMapper();
+        for (File file : files) {
+            try {
+                JsonNode json = mapper.readTree(file);
+                if (json.path("command").isMissingNode()) {
+                    System.out.println("AsyncAutoChooser: " + file.getName() + " has no command, skipped");
+                    continue;
+                }
+                String name = file.getName().substring(0, file.getName().length() - ".auto".length());
+                if (!json.path("resetOdom").asBoolean(false) && isPathOnly(json.path("command"))) {
+                    pathOnly.add(name);
+                }
+                if (!json.path("choreoAuto").asBoolean(false)) {
+                    autos.put(name, json);
+                }
+                ready.add(name);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        SmartDashboard.putNumber("AutoChooser/DiscoveryMs", (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Returns true if an auto's command is a path, or a sequence of nothing but
+     * paths
+     *
+     * @param command node of the auto JSON
+     * @return true if only paths are followed
+     */
+    private static boolean isPathOnly(JsonNode command) {
+        String type = command.path("type").asText();
+        if (type.equals("path")) {
+            return true;
+        }
+        if (!type.equals("sequential")) {
+            return false;
+        }
+        for (JsonNode child : command.path("data").path("commands")) {
+            if (!isPathOnly(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first path an auto's command follows
+     *
+     * @param command node of the auto JSON
+     * @return the path name, or null if it follows none
+     */
+    private static String firstPath(JsonNode command) {
+        if (command.path("type").asText().equals("path")) {
+            return command.path("data").path("pathName").asText();
+        }
+        for (JsonNode child : command.path("data").path("commands")) {
+            String path = firstPath(child);
+            if (path != null) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds an auto from its file like PathPlannerAuto, with the paths from
+     * {@link PathCache}
+     *
+     * @param json of the auto file
+     * @return the auto command, or null if it has a command this can't build
+     */
+    private Command buildAuto(JsonNode json) {
+        Command command = buildCommand(json.path("command"));
+        String  first   = firstPath(json.path("command"));
+        if (command == null || !json.path("resetOdom").asBoolean(false) || first == null) {
+            return command;
+        }
+        // PathCache picks the alliance's path, so the red start is already flipped
+        return Commands.runOnce(() -> {
+            PathPlannerPath path = PathCache.get(first);
+            resetPose.accept(path.getStartingHolonomicPose().orElseGet(path::getStartingDifferentialPose));
+        }).andThen(command);
+    }
+
+    /**
+     * Builds one command of an auto and everything in it
+     *
+     * @param command node of the auto JSON
+     * @return the command, or null if this can't build it
+     */
+    private Command buildCommand(JsonNode command) {
+        JsonNode data = command.path("data");
+        String   type = command.path("type").asText();
+        return switch (type) {
+            case "path" -> paths.apply(data.path("pathName").asText());
+            case "named" -> NamedCommands.getCommand(data.path("name").asText());
+            case "wait" -> Commands.waitSeconds(data.path("waitTime").asDouble());
+            case "sequential", "parallel", "race", "deadline" -> buildGroup(type, data.path("commands"));
+            default -> null;
+        };
+    }
+
+    /**
+     * Builds a command group of an auto
+     *
+     * @param type     of the group
+     * @param commands nodes of the commands in the group
+     * @return the group, or null if this can't build one of its commands
+     */
+    private Command buildGroup(String type, JsonNode commands) {
+        List<Command> children = new ArrayList<>();
+        for (JsonNode child : commands) {
+            Command built = buildCommand(child);
+            if (built == null) {
+                return null;
+            }
+            children.add(built);
+        }
+        Command[] array = children.toArray(new Command[0]);
+        return switch (type) {
+            case "sequential" -> Commands.sequence(array);
+            case "parallel" -> Commands.parallel(array);
+            case "race" -> Commands.race(array);
+            // The first command is the deadline
+            default -> array.length == 0 ? Commands.none()
+                    : Commands.deadline(array[0], Arrays.copyOfRange(array, 1, array.length));
+        };
+    }
+
+    private void build(String name) {
+        long buildStart = System.nanoTime();
+        try {
+            Command  command = pathOnly.contains(name) ? compiledAutos.apply(name) : null;
+            JsonNode json    = autos.get(name);
+            if (command == null && json != null) {
+                command = buildAuto(json);
+            }
+            chooser.addOption(name, command != null ? command.withName(name) : new PathPlannerAuto(name));
+            built++;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        buildMs += (System.nanoTime() - buildStart) / 1e6;
+    }
+
+    private void finish() {
+        finished = true;
+        double readyMs = (System.nanoTime() - start) / 1e6;
+        SmartDashboard.putNumber("AutoChooser/Autos", built);
+        SmartDashboard.putNumber("AutoChooser/BuildMs", buildMs);
+        SmartDashboard.putNumber("AutoChooser/ReadyMs", readyMs);
+        System.out.printf("AsyncAutoChooser: %d autos ready %.1f ms after boot, %.1f ms spent building%n", built,
+                readyMs, buildMs);
+    }
+}
@@ -0,0 +1,295 @@
+package frc.robot.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.pathplanner.lib.util.FlippingUtil;
+import com.pathplanner.lib.util.FlippingUtil.FieldSymmetry;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Reads the trajectories written by {@link TrajectoryCompiler} at build time.
+ * The file is memory mapped and sampled in place, so following a path needs no
+ * trajectory generation on the robot and sampling allocates nothing.
+ * <p>
+ * File layout (big endian):
+ *
+ * <pre>
+ * int magic, int version, int pathCount, int autoCount
+ * pathCount x { short nameLength, byte[] name, int firstState, int stateCount }
+ * autoCount x { short nameLength, byte[] name, short pathCount, short[] pathIds }
+ * states    x { float time, x, y, heading, vx, vy, omega }
+ * </pre>
+ *
+ * Everything is stored for the blue alliance, red is flipped while sampling.
+ */
+public class CompiledTrajectories {
+    public static final String          kFileName        = "trajectories.bin";
+
+    public static final int             kMagic           = 0x4F425452; // "OBTR"
+
+    public static final int             kVersion         = 1;
+
+    public static final int             kFloatsPerState  = 7;
+
+    public static final int             kBytesPerState   = kFloatsPerState * Float.BYTES;
+
+    private static CompiledTrajectories instance;
+
+    private final MappedByteBuffer      buffer;
+
+    private final int                   stateOffset;
+
+    private final Map<String, Integer>  pathIds          = new HashMap<>();
+
+    private final Map<String, int[]>    autos            = new HashMap<>();
+
+    private final List<String>          pathNames        = new ArrayList<>();
+
+    private final int[]                 firstState;
+
+    private final int[]                 stateCount;
+
+    /**
+     * One sampled point of a trajectory. Reuse the same instance every loop.
+     */
+    public static class State {
+        public double time;
+
+        public double x;
+
+        public double y;
+
+        public double heading;
+
+        public double vx;
+
+        public double vy;
+
+        public double omega;
+    }
+
+    /**
+     * Returns the trajectories from the deploy directory, loading them the first
+     * time. Returns null if the file is missing or isn't a trajectory file of
+     * this version, callers should fall back to PathPlanner in that case. The
+     * file isn't checked against the path files here, deploy refuses a file
+     * older than its paths instead.
+     *
+     * @return the compiled trajectories, or null
+     */
+    public static synchronized CompiledTrajectories getInstance() {
+        if (instance == null) {
+            File file = new File(Filesystem.getDeployDirectory(), kFileName);
+            if (!file.exists()) {
+                System.out.println("CompiledTrajectories: " + kFileName + " not found, run compileTrajectories");
+                return null;
+            }
+            try {
+                instance = new CompiledTrajectories(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return instance;
+    }
+
+    private CompiledTrajectories(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt() != kMagic || buffer.getInt() != kVersion) {
+            throw new IOException(kFileName + " is not a version " + kVersion + " trajectory file");
+        }
+        int pathCount = buffer.getInt();
+        int autoCount = buffer.getInt();
+
+        firstState = new int[pathCount];
+        stateCount = new int[pathCount];
+        for (int i = 0; i < pathCount; i++) {
+            String name = readName();
+            firstState[i] = buffer.getInt();
+            stateCount[i] = buffer.getInt();
+            pathIds.put(name, i);
+            pathNames.add(name);
+        }
+        for (int i = 0; i < autoCount; i++) {
+            String name = readName();
+            int[]  ids  = new int[buffer.getShort()];
+            for (int j = 0; j < ids.length; j++) {
+                ids[j] = buffer.getShort();
+            }
+            autos.put(name, ids);
+        }
+        stateOffset = buffer.position();
+    }
+
+    /**
+     * Looks up a path by name. Do this once when building a command, not every
+     * loop.
+     *
+     * @param name of the path file, without .path
+     * @return the path id, or -1 if the path wasn't compiled
+     */
+    public int getPathId(String name) {
+        return pathIds.getOrDefault(name, -1);
+    }
+
+    /**
+     * @return names of every compiled path, in id order
+     */
+    public List<String> getPathNames() {
+        return pathNames;
+    }
+
+    /**
+     * Returns the paths an auto runs, in order
+     *
+     * @param autoName of the auto file, without .auto
+     * @return path ids, or null if the auto wasn't compiled
+     */
+    public int[] getAutoPathIds(String autoName) {
+        return autos.get(autoName);
+    }
+
+    /**
+     * @param path id
+     * @return the number of states stored for the path
+     */
+    public int getStateCount(int path) {
+        return stateCount[path];
+    }
+
+    /**
+     * @param path id
+     * @return how long the path takes to run in seconds
+     */
+    public double getTotalTime(int path) {
+        return floatAt(firstState[path] + stateCount[path] - 1, 0);
+    }
+
+    /**
+     * Returns the time of one stored state
+     *
+     * @param path  id
+     * @param state index within the path
+     * @return time in seconds
+     */
+    public double getStateTime(int path, int state) {
+        return floatAt(firstState[path] + state, 0);
+    }
+
+    /**
+     * @param path id
+     * @return absolute index of the path's first state
+     */
+    int getFirstState(int path) {
+        return firstState[path];
+    }
+
+    /**
+     * Samples a path at a time, interpolating between the stored states. Binary
+     * searches every call, use a {@link TrajectorySampler} to follow a path.
+     *
+     * @param path id
+     * @param t    seconds since the path started
+     * @param flip true to flip the path for the red alliance
+     * @param out  state to fill in
+     * @return void
+     */
+    public void sample(int path, double t, boolean flip, State out) {
+        int first = firstState[path];
+        int last  = first + stateCount[path] - 1;
+
+        // Find the last state at or before t
+        int low  = first;
+        int high = last;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (floatAt(mid, 0) <= t) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        interpolate(low, Math.min(low + 1, last), t, flip, out);
+    }
+
+    /**
+     * Interpolates between two stored states
+     *
+     * @param a    absolute index of the state before t
+     * @param b    absolute index of the state after t
+     * @param t    seconds since the path started
+     * @param flip true to flip the path for the red alliance
+     * @param out  state to fill in
+     * @return void
+     */
+    void interpolate(int a, int b, double t, boolean flip, State out) {
+        double ta = floatAt(a, 0);
+        double tb = floatAt(b, 0);
+        double f  = tb > ta ? MathUtil.clamp((t - ta) / (tb - ta), 0.0, 1.0) : 0.0;
+
+        out.time  = ta + (tb - ta) * f;
+        out.x     = lerp(a, b, 1, f);
+        out.y     = lerp(a, b, 2, f);
+        out.vx    = lerp(a, b, 4, f);
+        out.vy    = lerp(a, b, 5, f);
+        out.omega = lerp(a, b, 6, f);
+
+        double ha = floatAt(a, 3);
+        out.heading = ha + MathUtil.angleModulus(floatAt(b, 3) - ha) * f;
+
+        if (flip) {
+            flip(out);
+        }
+    }
+
+    /**
+     * Converts a blue alliance state to red, the same way PathPlanner flips paths
+     *
+     * @param state to flip in place
+     * @return void
+     */
+    public static void flip(State state) {
+        if (FlippingUtil.symmetryType == FieldSymmetry.kMirrored) {
+            state.x       = FlippingUtil.fieldSizeX - state.x;
+            state.heading = Math.PI - state.heading;
+            state.vx      = -state.vx;
+            state.omega   = -state.omega;
+        } else {
+            state.x       = FlippingUtil.fieldSizeX - state.x;
+            state.y       = FlippingUtil.fieldSizeY - state.y;
+            state.heading = state.heading + Math.PI;
+            state.vx      = -state.vx;
+            state.vy      = -state.vy;
+        }
+        state.heading = MathUtil.angleModulus(state.heading);
+    }
+
+    private double lerp(int a, int b, int field, double f) {
+        double va = floatAt(a, field);
+        return va + (floatAt(b, field) - va) * f;
+    }
+
+    private float floatAt(int state, int field) {
+        return buffer.getFloat(stateOffset + state * kBytesPerState + field * Float.BYTES);
+    }
+
+    private String readName() {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
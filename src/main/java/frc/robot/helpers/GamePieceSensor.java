@@ -0,0 +1,124 @@
+package frc.robot.helpers;
+
+import com.playingwithfusion.TimeOfFlight;
+import com.playingwithfusion.TimeOfFlight.RangingMode;
+
+import edu.wpi.first.math.filter.MedianFilter;
+
+/**
+ * Wraps a TimeOfFlight sensor used to detect a game piece. Readings are run
+ * through a median filter and a hysteresis band so a single noisy sample can't
+ * flip the result, and listeners are told as soon as the piece state changes.
+ * <p>
+ * {@link #sample()} is meant to be called from a fast Notifier rather than a
+ * subsystem's periodic(), so everything read by the main loop is volatile.
+ */
+public class GamePieceSensor {
+    // Fastest schedule the sensor supports in short ranging mode
+    public static final double kSampleTimeMs = 24.0;
+
+    private final TimeOfFlight sensor;
+
+    private final MedianFilter filter = new MedianFilter(3);
+
+    private final double       presentRange;
+
+    private final double       clearRange;
+
+    private double             lastRawRange = Double.NaN;
+
+    private volatile double    filteredRange;
+
+    private volatile boolean   hasPiece;
+
+    private Runnable           onAcquired   = () -> {};
+
+    private Runnable           onReleased   = () -> {};
+
+    /**
+     * Creates a game piece sensor. A piece is present once the filtered range is
+     * at or above presentRange, and is cleared again when it falls below
+     * presentRange - hysteresis.
+     *
+     * @param new_sensor       the TimeOfFlight sensor to read
+     * @param new_presentRange range in mm at which a piece is reported present
+     * @param hysteresis       range in mm the reading must drop below
+     *                         presentRange before the piece is cleared
+     */
+    public GamePieceSensor(TimeOfFlight new_sensor, double new_presentRange, double hysteresis) {
+        sensor       = new_sensor;
+        presentRange = new_presentRange;
+        clearRange   = new_presentRange - hysteresis;
+
+        sensor.setRangingMode(RangingMode.Short, kSampleTimeMs);
+    }
+
+    /**
+     * Sets the action to run when a piece is first seen. Runs on the sampling
+     * thread.
+     *
+     * @param action to run
+     * @return void
+     */
+    public void onAcquired(Runnable action) {
+        onAcquired = action;
+    }
+
+    /**
+     * Sets the action to run when a piece is no longer seen. Runs on the sampling
+     * thread.
+     *
+     * @param action to run
+     * @return void
+     */
+    public void onReleased(Runnable action) {
+        onReleased = action;
+    }
+
+    /**
+     * Reads the sensor and updates the piece state, firing onAcquired/onReleased
+     * on an edge. Safe to call faster than the sensor ranges, repeated readings of
+     * the same frame are ignored.
+     *
+     * @return void
+     */
+    public void sample() {
+        double raw = sensor.getRange();
+
+        // Readings carry sub-millimetre noise, so an identical value means no new
+        // frame has arrived yet and shouldn't be fed to the filter twice.
+        if (raw == lastRawRange) {
+            return;
+        }
+        lastRawRange = raw;
+
+        double range = filter.calculate(raw);
+        filteredRange = range;
+
+        if (!hasPiece && range >= presentRange) {
+            hasPiece = true;
+            onAcquired.run();
+        } else if (hasPiece && range < clearRange) {
+            hasPiece = false;
+            onReleased.run();
+        }
+    }
+
+    /**
+     * Returns true if a game piece is detected
+     *
+     * @return True if a game piece is detected
+     */
+    public boolean hasPiece() {
+        return hasPiece;
+    }
+
+    /**
+     * Returns the latest filtered range
+     *
+     * @return filtered range in mm
+     */
+    public double getRange() {
+        return filteredRange;
+    }
+}
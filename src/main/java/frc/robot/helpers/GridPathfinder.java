@@ -0,0 +1,534 @@
+package frc.robot.helpers;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.config.ConfigurationLoader;
+import frc.robot.config.StartupCache;
+
+/**
+ * Any-angle (Theta*) pathfinder over the PathPlanner navgrid. The grid is
+ * packed into bits and the search only uses primitive arrays that are sized
+ * once, so a plan doesn't create garbage beyond the returned waypoints.
+ * <p>
+ * Dynamic obstacles are kept in a second bit layer. Every change bumps
+ * {@link #getObstacleVersion()}, and {@link #repair} only searches again
+ * around the segments of an existing path that became blocked.
+ * <p>
+ * Not thread safe, use it from the main robot thread.
+ */
+public class GridPathfinder {
+    public static final String kFileName = "pathplanner/navgrid.json";
+
+    private static final int   kNone     = -1;
+
+    private final int          columns;
+
+    private final int          rows;
+
+    private final double       nodeSize;
+
+    // One bit per cell, index is row * columns + column
+    private final long[]       staticObstacles;
+
+    private final long[]       dynamicObstacles;
+
+    private int                obstacleVersion = 0;
+
+    // Search state, valid for a cell only when searchStamp matches search
+    private final double[]     gScore;
+
+    private final int[]        parent;
+
+    private final int[]        searchStamp;
+
+    private final long[]       closed;
+
+    private int                search          = 0;
+
+    // Binary heap of cells ordered by f score. Cells can be in it more than
+    // once, stale entries are skipped when popped.
+    private int[]              heapCells;
+
+    private double[]           heapKeys;
+
+    private int                heapSize;
+
+    /**
+     * Creates a pathfinder from a grid of blocked cells
+     *
+     * @param new_nodeSize size of a cell in meters
+     * @param blocked      blocked[row][column], row 0 is y = 0
+     */
+    public GridPathfinder(double new_nodeSize, boolean[][] blocked) {
+        nodeSize         = new_nodeSize;
+        rows             = blocked.length;
+        columns          = blocked[0].length;
+        staticObstacles  = new long[(rows * columns + 63) / 64];
+        dynamicObstacles = new long[staticObstacles.length];
+        gScore           = new double[rows * columns];
+        parent           = new int[rows * columns];
+        searchStamp      = new int[rows * columns];
+        closed           = new long[staticObstacles.length];
+        heapCells        = new int[rows * columns];
+        heapKeys         = new double[rows * columns];
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                if (blocked[row][column]) {
+                    set(staticObstacles, row * columns + column);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a pathfinder that shares another's static grid but has its own
+     * search state and dynamic obstacles, so each thread can plan with its own
+     *
+     * @param other pathfinder to copy the grid from
+     */
+    public GridPathfinder(GridPathfinder other) {
+        nodeSize         = other.nodeSize;
+        rows             = other.rows;
+        columns          = other.columns;
+        staticObstacles  = other.staticObstacles;
+        dynamicObstacles = new long[staticObstacles.length];
+        gScore           = new double[rows * columns];
+        parent           = new int[rows * columns];
+        searchStamp      = new int[rows * columns];
+        closed           = new long[staticObstacles.length];
+        heapCells        = new int[rows * columns];
+        heapKeys         = new double[rows * columns];
+    }
+
+    /**
+     * Creates a pathfinder from an already packed grid, read from the
+     * StartupCache
+     *
+     * @param new_nodeSize size of a cell in meters
+     * @param new_rows     in the grid
+     * @param new_columns  in the grid
+     * @param obstacles    one bit per cell, index is row * columns + column
+     */
+    private GridPathfinder(double new_nodeSize, int new_rows, int new_columns, long[] obstacles) {
+        nodeSize         = new_nodeSize;
+        rows             = new_rows;
+        columns          = new_columns;
+        staticObstacles  = obstacles;
+        dynamicObstacles = new long[staticObstacles.length];
+        gScore           = new double[rows * columns];
+        parent           = new int[rows * columns];
+        searchStamp      = new int[rows * columns];
+        closed           = new long[staticObstacles.length];
+        heapCells        = new int[rows * columns];
+        heapKeys         = new double[rows * columns];
+    }
+
+    /**
+     * Loads the navgrid from the deploy directory, from the StartupCache when
+     * the file hasn't changed since the last boot
+     *
+     * @return the pathfinder
+     * @throws IOException if the grid can't be read
+     */
+    public static GridPathfinder load() throws IOException {
+        return StartupCache.load(kFileName, new StartupCache.Codec<GridPathfinder>() {
+            @Override
+            public void write(GridPathfinder value, DataOutputStream out) throws IOException {
+                out.writeDouble(value.nodeSize);
+                out.writeInt(value.rows);
+                out.writeInt(value.columns);
+                for (long bits : value.staticObstacles) {
+                    out.writeLong(bits);
+                }
+            }
+
+            @Override
+            public GridPathfinder read(ByteBuffer in) {
+                double nodeSize  = in.getDouble();
+                int    rows      = in.getInt();
+                int    columns   = in.getInt();
+                long[] obstacles = new long[(rows * columns + 63) / 64];
+                in.asLongBuffer().get(obstacles);
+                return new GridPathfinder(nodeSize, rows, columns, obstacles);
+            }
+        }, () -> load(new File(Filesystem.getDeployDirectory(), kFileName)));
+    }
+
+    /**
+     * Loads a navgrid file written by PathPlanner
+     *
+     * @param file navgrid.json
+     * @return the pathfinder
+     * @throws IOException if the grid can't be read
+     */
+    public static GridPathfinder load(File file) throws IOException {
+        JsonNode    json    = ConfigurationLoader.getObjectMapper().readTree(file);
+        JsonNode    grid    = json.get("grid");
+        boolean[][] blocked = new boolean[grid.size()][grid.get(0).size()];
+        for (int row = 0; row < blocked.length; row++) {
+            for (int column = 0; column < blocked[row].length; column++) {
+                blocked[row][column] = grid.get(row).get(column).asBoolean();
+            }
+        }
+        return new GridPathfinder(json.get("nodeSizeMeters").asDouble(), blocked);
+    }
+
+    /**
+     * Replaces the dynamic obstacles, using the same box format as PathPlanner's
+     * Pathfinder
+     *
+     * @param obstacles opposite corners of each box, in field coordinates
+     * @return void
+     */
+    public void setDynamicObstacles(List<Pair<Translation2d, Translation2d>> obstacles) {
+        Arrays.fill(dynamicObstacles, 0L);
+        for (Pair<Translation2d, Translation2d> box : obstacles) {
+            int columnMin = Math.max(0, Math.min(column(box.getFirst()), column(box.getSecond())));
+            int columnMax = Math.min(columns - 1, Math.max(column(box.getFirst()), column(box.getSecond())));
+            int rowMin    = Math.max(0, Math.min(row(box.getFirst()), row(box.getSecond())));
+            int rowMax    = Math.min(rows - 1, Math.max(row(box.getFirst()), row(box.getSecond())));
+            for (int row = rowMin; row <= rowMax; row++) {
+                for (int column = columnMin; column <= columnMax; column++) {
+                    set(dynamicObstacles, row * columns + column);
+                }
+            }
+        }
+        obstacleVersion++;
+    }
+
+    /**
+     * Returns a counter that changes whenever the dynamic obstacles change, so
+     * a follower knows when to call {@link #repair}
+     *
+     * @return obstacle version
+     */
+    public int getObstacleVersion() {
+        return obstacleVersion;
+    }
+
+    /**
+     * Plans a path. A start or goal inside an obstacle is moved to the nearest
+     * free cell, the same as PathPlanner does.
+     *
+     * @param start position in meters
+     * @param goal  position in meters
+     * @return waypoints from start to goal, or an empty list if there is no path
+     */
+    public List<Translation2d> findPath(Translation2d start, Translation2d goal) {
+        int startCell = nearestFree(cell(start));
+        int goalCell  = nearestFree(cell(goal));
+        if (startCell == kNone || goalCell == kNone) {
+            return new ArrayList<>();
+        }
+
+        List<Translation2d> path = new ArrayList<>();
+        if (!search(startCell, goalCell)) {
+            return path;
+        }
+        // Built backwards from the goal. When an end was moved out of an obstacle the
+        // free cell it was moved to is kept so the robot drives out the way it came.
+        path.add(goal);
+        if (goalCell != cell(goal)) {
+            path.add(center(goalCell));
+        }
+        for (int cell = parent[goalCell]; cell != startCell; cell = parent[cell]) {
+            path.add(center(cell));
+        }
+        if (startCell != cell(start) && startCell != goalCell) {
+            path.add(center(startCell));
+        }
+        path.add(start);
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Checks a path against the current obstacles and replans only the parts of
+     * it that are now blocked. A blocked segment is replaced by a search to the
+     * waypoint at its end, or to the goal if that waypoint is now blocked too.
+     *
+     * @param path waypoints still to drive, the first being where the robot is
+     * @return the same list if nothing was blocked, otherwise a new path (empty
+     *         if the goal can no longer be reached)
+     */
+    public List<Translation2d> repair(List<Translation2d> path) {
+        List<Translation2d> repaired = null;
+        for (int i = 0; i < path.size() - 1; i++) {
+            // The ends of the path may sit in obstacles, check them from where the
+            // search would have started and finished
+            boolean last = i + 1 == path.size() - 1;
+            int     from = nearestFree(cell(path.get(i)));
+            int     to   = last ? nearestFree(cell(path.get(i + 1))) : cell(path.get(i + 1));
+            if (from != kNone && to != kNone && lineOfSight(from, to)) {
+                if (repaired != null) {
+                    repaired.add(path.get(i + 1));
+                }
+                continue;
+            }
+
+            if (repaired == null) {
+                repaired = new ArrayList<>(path.subList(0, i));
+            }
+            if (to == kNone || isBlocked(to)) {
+                // The end of the segment is gone, plan all the way to the goal
+                List<Translation2d> rest = findPath(path.get(i), path.get(path.size() - 1));
+                if (rest.isEmpty()) {
+                    return rest;
+                }
+                repaired.addAll(rest);
+                return repaired;
+            }
+            List<Translation2d> detour = findPath(path.get(i), path.get(i + 1));
+            if (detour.isEmpty()) {
+                return detour;
+            }
+            repaired.addAll(detour);
+        }
+        return repaired == null ? path : repaired;
+    }
+
+    /**
+     * Returns true if a straight line between two points doesn't cross an
+     * obstacle
+     *
+     * @param from position in meters
+     * @param to   position in meters
+     * @return True if the line is clear
+     */
+    public boolean isClear(Translation2d from, Translation2d to) {
+        return lineOfSight(cell(from), cell(to));
+    }
+
+    /**
+     * Theta* from one cell to another. Leaves the parent chain in parent[].
+     *
+     * @param startCell to search from
+     * @param goalCell  to search to
+     * @return True if the goal was reached
+     */
+    private boolean search(int startCell, int goalCell) {
+        search++;
+        Arrays.fill(closed, 0L);
+        heapSize = 0;
+
+        open(startCell, startCell, 0.0, goalCell);
+
+        while (heapSize > 0) {
+            int cell = pop();
+            if (get(closed, cell)) {
+                continue;
+            }
+            if (cell == goalCell) {
+                return true;
+            }
+            set(closed, cell);
+
+            int row    = cell / columns;
+            int column = cell % columns;
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int r = row + dr;
+                    int c = column + dc;
+                    if ((dr == 0 && dc == 0) || isBlocked(r, c)) {
+                        continue;
+                    }
+                    // Don't cut the corner of an obstacle on a diagonal step
+                    if (dr != 0 && dc != 0 && (isBlocked(row + dr, column) || isBlocked(row, column + dc))) {
+                        continue;
+                    }
+                    int neighbor = r * columns + c;
+                    if (get(closed, neighbor)) {
+                        continue;
+                    }
+
+                    // Theta*: connect straight to our parent when it can see the neighbor
+                    int from = parent[cell];
+                    if (!lineOfSight(from, neighbor)) {
+                        from = cell;
+                    }
+                    double g = gScore[from] + distance(from, neighbor);
+                    if (searchStamp[neighbor] != search || g < gScore[neighbor]) {
+                        open(neighbor, from, g, goalCell);
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void open(int cell, int from, double g, int goalCell) {
+        searchStamp[cell] = search;
+        gScore[cell]      = g;
+        parent[cell]      = from;
+        push(cell, g + distance(cell, goalCell));
+    }
+
+    /**
+     * Walks the cells a line between two cell centers passes through, counting a
+     * line through a corner as touching both cells beside it
+     *
+     * @param from cell
+     * @param to   cell
+     * @return True if none of the cells are blocked
+     */
+    private boolean lineOfSight(int from, int to) {
+        int x  = from % columns;
+        int y  = from / columns;
+        int x1 = to % columns;
+        int y1 = to / columns;
+        int dx = Math.abs(x1 - x);
+        int dy = Math.abs(y1 - y);
+        int sx = x1 > x ? 1 : -1;
+        int sy = y1 > y ? 1 : -1;
+
+        int error = dx - dy;
+        for (int n = dx + dy; n > 0; n--) {
+            if (error > 0) {
+                x     += sx;
+                error -= 2 * dy;
+            } else if (error < 0) {
+                y     += sy;
+                error += 2 * dx;
+            } else {
+                if (isBlocked(y, x + sx) || isBlocked(y + sy, x)) {
+                    return false;
+                }
+                x     += sx;
+                y     += sy;
+                error += 2 * (dx - dy);
+                n--;
+            }
+            if (isBlocked(y, x)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Breadth first search outward for the closest free cell
+     *
+     * @param start cell, may be outside the grid
+     * @return the nearest free cell, or kNone if every cell is blocked
+     */
+    private int nearestFree(int start) {
+        if (!isBlocked(start)) {
+            return start;
+        }
+        int row    = Math.max(0, Math.min(rows - 1, start / columns));
+        int column = Math.max(0, Math.min(columns - 1, start % columns));
+        for (int ring = 0; ring < Math.max(rows, columns); ring++) {
+            int    best         = kNone;
+            double bestDistance = Double.MAX_VALUE;
+            for (int r = row - ring; r <= row + ring; r++) {
+                for (int c = column - ring; c <= column + ring; c++) {
+                    boolean edge = Math.abs(r - row) == ring || Math.abs(c - column) == ring;
+                    if (edge && !isBlocked(r, c) && Math.hypot(r - row, c - column) < bestDistance) {
+                        best         = r * columns + c;
+                        bestDistance = Math.hypot(r - row, c - column);
+                    }
+                }
+            }
+            if (best != kNone) {
+                return best;
+            }
+        }
+        return kNone;
+    }
+
+    private void push(int cell, double key) {
+        if (heapSize == heapCells.length) {
+            heapCells = Arrays.copyOf(heapCells, heapSize * 2);
+            heapKeys  = Arrays.copyOf(heapKeys, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) / 2;
+            if (heapKeys[up] <= key) {
+                break;
+            }
+            heapCells[i] = heapCells[up];
+            heapKeys[i]  = heapKeys[up];
+            i            = up;
+        }
+        heapCells[i] = cell;
+        heapKeys[i]  = key;
+    }
+
+    private int pop() {
+        int    top  = heapCells[0];
+        int    cell = heapCells[--heapSize];
+        double key  = heapKeys[heapSize];
+        int    i    = 0;
+        while (2 * i + 1 < heapSize) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if (key <= heapKeys[child]) {
+                break;
+            }
+            heapCells[i] = heapCells[child];
+            heapKeys[i]  = heapKeys[child];
+            i            = child;
+        }
+        heapCells[i] = cell;
+        heapKeys[i]  = key;
+        return top;
+    }
+
+    private double distance(int a, int b) {
+        return Math.hypot(a % columns - b % columns, a / columns - b / columns);
+    }
+
+    private boolean isBlocked(int cell) {
+        return isBlocked(cell / columns, cell % columns);
+    }
+
+    private boolean isBlocked(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            return true;
+        }
+        int cell = row * columns + column;
+        return get(staticObstacles, cell) || get(dynamicObstacles, cell);
+    }
+
+    private int column(Translation2d position) {
+        return (int) Math.floor(position.getX() / nodeSize);
+    }
+
+    private int row(Translation2d position) {
+        return (int) Math.floor(position.getY() / nodeSize);
+    }
+
+    private int cell(Translation2d position) {
+        int row    = Math.max(0, Math.min(rows - 1, row(position)));
+        int column = Math.max(0, Math.min(columns - 1, column(position)));
+        return row * columns + column;
+    }
+
+    private Translation2d center(int cell) {
+        return new Translation2d((cell % columns + 0.5) * nodeSize, (cell / columns + 0.5) * nodeSize);
+    }
+
+    private static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+}
@@ -0,0 +1,121 @@
+package frc.robot.helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import com.revrobotics.spark.SparkBase.PersistMode;
+import com.revrobotics.spark.SparkBase.ResetMode;
+import com.revrobotics.spark.SparkMax;
+import com.revrobotics.spark.config.SparkMaxConfig;
+
+/**
+ * Runs independent startup work, like SparkMax configuration and config file
+ * parsing, on a small thread pool while the main thread keeps building
+ * subsystems. Each configure() with kPersistParameters blocks for a CAN round
+ * trip and a flash write, doing them one after another is most of our boot
+ * time.
+ * <p>
+ * Subsystems themselves are still built on the main thread, the
+ * CommandScheduler registers them in the SubsystemBase constructor and isn't
+ * thread safe. Call {@link #await()} before anything uses the devices.
+ */
+public class ParallelInit {
+    // Set to false to run everything on the main thread, to compare boot times
+    public static final boolean                     kEnabled = true;
+
+    private static final List<CompletableFuture<?>> pending  = new ArrayList<>();
+
+    private static ExecutorService                  executor;
+
+    private ParallelInit() {
+    }
+
+    /**
+     * Starts a piece of startup work
+     *
+     * @param name of the work, for the startup profile
+     * @param task work to do
+     * @return a future that completes when the work is done
+     */
+    public static CompletableFuture<Void> run(String name, Runnable task) {
+        return supply(name, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Starts a piece of startup work that creates something
+     *
+     * @param <T>  type the work creates
+     * @param name of the work, for the startup profile
+     * @param task work to do
+     * @return a future with the result
+     */
+    public static synchronized <T> CompletableFuture<T> supply(String name, Supplier<T> task) {
+        CompletableFuture<T> future;
+        if (kEnabled) {
+            if (executor == null) {
+                executor = Executors.newFixedThreadPool(4, runnable -> {
+                    Thread thread = new Thread(runnable, "ParallelInit");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            future = CompletableFuture.supplyAsync(() -> StartupProfiler.time(name, task), executor);
+        } else {
+            try {
+                future = CompletableFuture.completedFuture(StartupProfiler.time(name, task));
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+        }
+        pending.add(future);
+        return future;
+    }
+
+    /**
+     * Configures a SparkMax in the background. The config is copied first, so
+     * the caller can keep changing it for the next controller.
+     *
+     * @param name        of the controller, for the startup profile
+     * @param spark       to configure
+     * @param config      to apply
+     * @param resetMode   passed to configure()
+     * @param persistMode passed to configure()
+     * @return a future that completes once the controller is configured
+     */
+    public static CompletableFuture<Void> configure(String name, SparkMax spark, SparkMaxConfig config,
+            ResetMode resetMode, PersistMode persistMode) {
+        SparkMaxConfig copy = new SparkMaxConfig();
+        copy.apply(config);
+        return run(name, () -> spark.configure(copy, resetMode, persistMode));
+    }
+
+    /**
+     * Waits for all startup work to finish. Errors are printed, not thrown, so a
+     * bad device doesn't stop the robot from booting.
+     *
+     * @return void
+     */
+    public static void await() {
+        List<CompletableFuture<?>> waiting;
+        synchronized (ParallelInit.class) {
+            waiting = new ArrayList<>(pending);
+            pending.clear();
+        }
+        long start = System.nanoTime();
+        for (CompletableFuture<?> future : waiting) {
+            try {
+                future.join();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        StartupProfiler.record("ParallelInit/Await", start);
+    }
+}
@@ -0,0 +1,175 @@
+package frc.robot.helpers;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.pathplanner.lib.config.RobotConfig;
+import com.pathplanner.lib.path.PathPlannerPath;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Loads every PathPlanner path in the deploy directory at boot, in parallel,
+ * and keeps both the blue version and an already flipped red version. Once
+ * loaded nothing has to be parsed or flipped after the robot is enabled.
+ * <p>
+ * The red paths have preventFlipping set so AutoBuilder won't flip them a
+ * second time when it sees we are on the red alliance.
+ */
+public class PathCache {
+    private static final Map<String, PathPlannerPath> bluePaths = new ConcurrentHashMap<>();
+
+    private static final Map<String, PathPlannerPath> redPaths  = new ConcurrentHashMap<>();
+
+    private static volatile CompletableFuture<Void>   loading   = CompletableFuture.completedFuture(null);
+
+    private PathCache() {
+    }
+
+    /**
+     * Starts loading every .path file on background threads. Returns right away,
+     * call it as early as possible in Robot's constructor.
+     *
+     * @return a future that completes once every path is loaded
+     */
+    public static synchronized CompletableFuture<Void> preload() {
+        File[] files = new File(Filesystem.getDeployDirectory(), "pathplanner/paths")
+                .listFiles((dir, name) -> name.endsWith(".path"));
+        if (files == null) {
+            System.out.println("PathCache: no paths found");
+            return loading;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+                    Thread thread = new Thread(runnable, "PathCache");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        long                            start   = System.nanoTime();
+        CompletableFuture<RobotConfig>  config  = CompletableFuture.supplyAsync(PathCache::loadRobotConfig, executor);
+        List<CompletableFuture<Double>> futures = new ArrayList<>();
+
+        for (File file : files) {
+            String name = file.getName().substring(0, file.getName().length() - ".path".length());
+            futures.add(config.thenApplyAsync(robotConfig -> load(name, robotConfig), executor));
+        }
+
+        loading = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenRun(() -> {
+            double totalMs   = (System.nanoTime() - start) / 1e6;
+            double slowestMs = 0.0;
+            for (CompletableFuture<Double> future : futures) {
+                slowestMs = Math.max(slowestMs, future.join());
+            }
+            SmartDashboard.putNumber("PathCache/Paths", bluePaths.size());
+            SmartDashboard.putNumber("PathCache/TotalMs", totalMs);
+            SmartDashboard.putNumber("PathCache/SlowestMs", slowestMs);
+            System.out.printf("PathCache: loaded %d paths in %.1f ms (slowest %.1f ms)%n", bluePaths.size(), totalMs,
+                    slowestMs);
+        }).whenComplete((result, error) -> executor.shutdown());
+
+        return loading;
+    }
+
+    /**
+     * Returns true once preloading has finished
+     *
+     * @return True if every path has been loaded
+     */
+    public static boolean isLoaded() {
+        return loading.isDone();
+    }
+
+    /**
+     * Blocks until preloading has finished, for background work that needs the
+     * paths
+     *
+     * @return void
+     */
+    public static void waitUntilLoaded() {
+        loading.exceptionally(error -> null).join();
+    }
+
+    /**
+     * Returns a path for the current alliance, using the same alliance check as
+     * AutoBuilder's flip supplier
+     *
+     * @param name of the path file, without .path
+     * @return the path, or null if it could not be loaded
+     */
+    public static PathPlannerPath get(String name) {
+        var alliance = DriverStation.getAlliance();
+        return get(name, alliance.isPresent() ? alliance.get() : Alliance.Blue);
+    }
+
+    /**
+     * Returns a path for an alliance. A path that wasn't preloaded is loaded now,
+     * which is slow, so a warning is printed.
+     *
+     * @param name     of the path file, without .path
+     * @param alliance to get the path for
+     * @return the path, or null if it could not be loaded
+     */
+    public static PathPlannerPath get(String name, Alliance alliance) {
+        if (!bluePaths.containsKey(name)) {
+            System.out.println("PathCache: " + name + " was not preloaded, loading it now");
+            load(name, null);
+        }
+        return alliance == Alliance.Red ? redPaths.get(name) : bluePaths.get(name);
+    }
+
+    /**
+     * Returns the names of every loaded path
+     *
+     * @return path names
+     */
+    public static List<String> getNames() {
+        return new ArrayList<>(bluePaths.keySet());
+    }
+
+    /**
+     * Loads a path and its flipped version, generating the ideal trajectories if
+     * a robot config is available
+     *
+     * @param name        of the path file, without .path
+     * @param robotConfig to generate trajectories with, may be null
+     * @return time taken in milliseconds
+     */
+    private static double load(String name, RobotConfig robotConfig) {
+        long start = System.nanoTime();
+        try {
+            PathPlannerPath blue = PathPlannerPath.fromPathFile(name);
+            PathPlannerPath red  = blue.flipPath();
+            red.preventFlipping = true;
+
+            if (robotConfig != null) {
+                blue.getIdealTrajectory(robotConfig);
+                red.getIdealTrajectory(robotConfig);
+            }
+
+            bluePaths.put(name, blue);
+            redPaths.put(name, red);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static RobotConfig loadRobotConfig() {
+        try {
+            return RobotConfig.fromGUISettings();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
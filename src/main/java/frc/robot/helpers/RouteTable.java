@@ -0,0 +1,239 @@
+package frc.robot.helpers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.path.Waypoint;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.AllianceLandmarks;
+import frc.robot.AllianceLandmarks.Landmark;
+
+/**
+ * Routes between every ordered pair of landmarks in {@link AllianceLandmarks},
+ * for both alliances, planned around the navgrid by {@link GridPathfinder}.
+ * The table is built on one background thread after boot, after that a route
+ * is an array lookup so a button press can start following it on the same
+ * loop. One thread leaves the roboRIO's other core to the robot thread; thread
+ * priorities can't do that, the JVM ignores them on Linux.
+ * <p>
+ * Only the paths are stored, PathPlanner generates the trajectory from the
+ * robot's actual speed when the path starts. Keeping an ideal trajectory for
+ * every pair would use too much of the roboRIO's memory.
+ */
+public class RouteTable {
+    // Same defaults as the PathPlanner GUI settings
+    private static final PathConstraints      kConstraints = new PathConstraints(6.5, 10.0,
+            Math.toRadians(540.0), Math.toRadians(720.0));
+
+    // Landmarks closer than this are the same place, there's no route between them
+    private static final double               kMinDistance = 0.05;
+
+    private static final List<String>         names        = new ArrayList<>();
+
+    private static final Map<String, Integer> indexes      = new HashMap<>();
+
+    // [alliance ordinal][landmark]
+    private static Pose2d[][]                 landmarks;
+
+    // [alliance ordinal][from landmark][to landmark]
+    private static PathPlannerPath[][][]      routes;
+
+    private static volatile boolean           built        = false;
+
+    private static CompletableFuture<Void>    building     = CompletableFuture.completedFuture(null);
+
+    private RouteTable() {
+    }
+
+    /**
+     * Starts building the table on a background thread. Returns right away.
+     *
+     * @param pathfinder with the navgrid loaded, copied for the thread
+     * @return a future that completes once every route is planned
+     */
+    public static synchronized CompletableFuture<Void> build(GridPathfinder pathfinder) {
+        if (routes != null) {
+            return building;
+        }
+
+        Alliance[]        alliances          = Alliance.values();
+        AllianceLandmarks alliance_landmarks = new AllianceLandmarks();
+        landmarks = new Pose2d[alliances.length][];
+        for (Alliance alliance : alliances) {
+            landmarks[alliance.ordinal()] = getLandmarks(alliance_landmarks, alliance);
+        }
+        int count = names.size();
+        routes = new PathPlannerPath[alliances.length][count][count];
+
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RouteTable");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+
+        // The robot thread keeps using the original for MoveToCommand
+        building = CompletableFuture.runAsync(() -> {
+            GridPathfinder copy = new GridPathfinder(pathfinder);
+            for (Alliance alliance : alliances) {
+                for (int from = 0; from < count; from++) {
+                    planFrom(copy, alliance.ordinal(), from);
+                }
+            }
+        }, executor).thenRun(() -> {
+            built = true;
+            double totalMs = (System.nanoTime() - start) / 1e6;
+            SmartDashboard.putNumber("RouteTable/Landmarks", count);
+            SmartDashboard.putNumber("RouteTable/TotalMs", totalMs);
+            System.out.printf("RouteTable: planned %d routes in %.1f ms%n", alliances.length * count * (count - 1),
+                    totalMs);
+        }).whenComplete((result, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+            }
+            executor.shutdown();
+        });
+        return building;
+    }
+
+    /**
+     * Returns true once every route has been planned
+     *
+     * @return True if the table is ready
+     */
+    public static boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Returns the index of a landmark, look it up once rather than every loop
+     *
+     * @param name of the landmark in alliancelandmarks.json, like reefZoneA
+     * @return the index, or -1 if there's no such landmark
+     */
+    public static int indexOf(String name) {
+        return indexes.getOrDefault(name, -1);
+    }
+
+    /**
+     * Returns the route between two landmarks for the current alliance
+     *
+     * @param from landmark name
+     * @param to   landmark name
+     * @return the path, or null if the table isn't built yet or there is no route
+     */
+    public static PathPlannerPath get(String from, String to) {
+        var alliance = DriverStation.getAlliance();
+        return get(alliance.isPresent() ? alliance.get() : Alliance.Blue, indexOf(from), indexOf(to));
+    }
+
+    /**
+     * Returns the route between two landmarks
+     *
+     * @param alliance to get the route for
+     * @param from     landmark index
+     * @param to       landmark index
+     * @return the path, or null if the table isn't built yet or there is no route
+     */
+    public static PathPlannerPath get(Alliance alliance, int from, int to) {
+        if (!built || from < 0 || to < 0) {
+            return null;
+        }
+        return routes[alliance.ordinal()][from][to];
+    }
+
+    /**
+     * Returns a landmark's pose
+     *
+     * @param alliance to get the pose for
+     * @param index    of the landmark
+     * @return the pose, or null if the table hasn't been started
+     */
+    public static Pose2d getLandmark(Alliance alliance, int index) {
+        if (landmarks == null || index < 0) {
+            return null;
+        }
+        return landmarks[alliance.ordinal()][index];
+    }
+
+    /**
+     * Plans the routes from one landmark to every other
+     *
+     * @param pathfinder for this thread
+     * @param alliance   ordinal
+     * @param from       landmark index
+     * @return void
+     */
+    private static void planFrom(GridPathfinder pathfinder, int alliance, int from) {
+        Pose2d start = landmarks[alliance][from];
+        for (int to = 0; to < names.size(); to++) {
+            Pose2d goal = landmarks[alliance][to];
+            if (start.getTranslation().getDistance(goal.getTranslation()) < kMinDistance) {
+                continue;
+            }
+            List<Translation2d> points = pathfinder.findPath(start.getTranslation(), goal.getTranslation());
+            if (points.size() < 2) {
+                System.out.println("RouteTable: no route from " + names.get(from) + " to " + names.get(to));
+                continue;
+            }
+
+            PathPlannerPath path = new PathPlannerPath(toWaypoints(points), kConstraints, null,
+                    new GoalEndState(0.0, goal.getRotation()));
+            // The landmarks are already for this alliance
+            path.preventFlipping       = true;
+            routes[alliance][from][to] = path;
+        }
+    }
+
+    /**
+     * Turns pathfinder points into PathPlanner waypoints, heading along each leg
+     *
+     * @param points from the pathfinder
+     * @return waypoints
+     */
+    private static List<Waypoint> toWaypoints(List<Translation2d> points) {
+        List<Pose2d> poses = new ArrayList<>(points.size());
+        for (int i = 0; i < points.size(); i++) {
+            Translation2d next    = points.get(Math.min(i + 1, points.size() - 1));
+            Translation2d last    = points.get(Math.max(i - 1, 0));
+            Rotation2d    heading = next.minus(last).getAngle();
+            poses.add(new Pose2d(points.get(i), heading));
+        }
+        return PathPlannerPath.waypointsFromPoses(poses);
+    }
+
+    /**
+     * Collects every landmark's pose for one alliance, recording the names the
+     * first time
+     *
+     * @param alliance_landmarks to collect from
+     * @param alliance           to collect
+     * @return landmark poses, in Landmark order
+     */
+    private static Pose2d[] getLandmarks(AllianceLandmarks alliance_landmarks, Alliance alliance) {
+        Landmark[] all   = Landmark.values();
+        Pose2d[]   poses = new Pose2d[all.length];
+        for (Landmark landmark : all) {
+            if (!indexes.containsKey(landmark.key)) {
+                indexes.put(landmark.key, names.size());
+                names.add(landmark.key);
+            }
+            poses[landmark.ordinal()] = alliance_landmarks.getPose(alliance, landmark);
+        }
+        return poses;
+    }
+}
@@ -0,0 +1,194 @@
+package frc.robot.helpers;
+
+/**
+ * A trapezoid profile that is solved once, when the target changes, into a
+ * handful of constant-acceleration segments (speed up, cruise, slow down).
+ * After that the reference at any time since the start is a couple of
+ * multiplies, with no allocation and no dependence on the measured state, so
+ * encoder noise can't leak back into the profile.
+ * <p>
+ * The math follows WPILib's TrapezoidProfile, so for the same start state the
+ * two produce the same trajectory.
+ */
+public class SegmentedProfile {
+    private final double   maxVelocity;
+
+    private final double   maxAcceleration;
+
+    // Segments are: stop (only used when moving too fast to stop at the goal),
+    // speed up, cruise, slow down. startTime[4] is the end of the profile.
+    private final double[] startTime     = new double[5];
+
+    private final double[] startPosition = new double[4];
+
+    private final double[] startVelocity = new double[4];
+
+    private final double[] acceleration  = new double[4];
+
+    private double         goalPosition;
+
+    private double         goalVelocity;
+
+    /**
+     * Creates a profile with the given limits, it holds position 0 until
+     * {@link #solve} is called.
+     *
+     * @param new_maxVelocity     in units per second
+     * @param new_maxAcceleration in units per second squared
+     */
+    public SegmentedProfile(double new_maxVelocity, double new_maxAcceleration) {
+        maxVelocity     = new_maxVelocity;
+        maxAcceleration = new_maxAcceleration;
+    }
+
+    /**
+     * Solves the profile from a starting state to a goal. Only call this when the
+     * goal changes.
+     *
+     * @param position         to start from
+     * @param velocity         to start from
+     * @param new_goalPosition to end at
+     * @param new_goalVelocity to end at
+     * @return void
+     */
+    public void solve(double position, double velocity, double new_goalPosition, double new_goalVelocity) {
+        goalPosition = new_goalPosition;
+        goalVelocity = new_goalVelocity;
+
+        double a        = maxAcceleration;
+        double toGoal   = new_goalPosition - position;
+        double stopTime = 0.0;
+
+        startTime[0]     = 0.0;
+        startPosition[0] = position;
+        startVelocity[0] = velocity;
+        acceleration[0]  = 0.0;
+
+        if (velocity * toGoal > 0 && velocity * velocity / (2.0 * a) > Math.abs(toGoal)) {
+            // Moving toward the goal too fast to stop on it, so stop first and then
+            // profile back from wherever that leaves us
+            stopTime         = Math.abs(velocity) / a;
+            acceleration[0]  = -Math.copySign(a, velocity);
+            position        += velocity * stopTime / 2.0;
+            velocity         = 0.0;
+        }
+
+        // Solve going in the positive direction and flip the result if needed
+        double direction = position > new_goalPosition ? -1.0 : 1.0;
+        double x0        = position * direction;
+        double v0        = velocity * direction;
+        double xg        = new_goalPosition * direction;
+        double vg        = new_goalVelocity * direction;
+
+        if (Math.abs(v0) > maxVelocity) {
+            v0 = Math.copySign(maxVelocity, v0);
+        }
+
+        double cutoffBegin       = v0 / a;
+        double cutoffDistBegin   = cutoffBegin * cutoffBegin * a / 2.0;
+        double cutoffEnd         = vg / a;
+        double cutoffDistEnd     = cutoffEnd * cutoffEnd * a / 2.0;
+        double fullTrapezoidDist = cutoffDistBegin + (xg - x0) + cutoffDistEnd;
+        double accelerationTime  = maxVelocity / a;
+        double fullSpeedDist     = fullTrapezoidDist - accelerationTime * accelerationTime * a;
+
+        if (fullSpeedDist < 0) {
+            // Never reaches max velocity, the profile is a triangle
+            accelerationTime = Math.sqrt(fullTrapezoidDist / a);
+            fullSpeedDist    = 0;
+        }
+
+        double endAccel     = Math.max(0.0, accelerationTime - cutoffBegin);
+        double endFullSpeed = endAccel + fullSpeedDist / maxVelocity;
+        double endDecel     = Math.max(endFullSpeed, endFullSpeed + accelerationTime - cutoffEnd);
+
+        startTime[1] = stopTime;
+        startTime[2] = stopTime + endAccel;
+        startTime[3] = stopTime + endFullSpeed;
+        startTime[4] = stopTime + endDecel;
+
+        startPosition[1] = x0 * direction;
+        startVelocity[1] = v0 * direction;
+        acceleration[1]  = a * direction;
+
+        double cruisePosition = x0 + (v0 + endAccel * a / 2.0) * endAccel;
+        double cruiseVelocity = v0 + endAccel * a;
+
+        startPosition[2] = cruisePosition * direction;
+        startVelocity[2] = cruiseVelocity * direction;
+        acceleration[2]  = 0.0;
+
+        startPosition[3] = (cruisePosition + cruiseVelocity * (endFullSpeed - endAccel)) * direction;
+        startVelocity[3] = cruiseVelocity * direction;
+        acceleration[3]  = -a * direction;
+    }
+
+    /**
+     * Returns the reference position at a time since the profile was solved
+     *
+     * @param t seconds since {@link #solve} was called
+     * @return position
+     */
+    public double position(double t) {
+        if (isFinished(t)) {
+            return goalPosition;
+        }
+        int    i  = segment(t);
+        double dt = t - startTime[i];
+        return startPosition[i] + (startVelocity[i] + acceleration[i] * dt / 2.0) * dt;
+    }
+
+    /**
+     * Returns the reference velocity at a time since the profile was solved
+     *
+     * @param t seconds since {@link #solve} was called
+     * @return velocity
+     */
+    public double velocity(double t) {
+        if (isFinished(t)) {
+            return goalVelocity;
+        }
+        int i = segment(t);
+        return startVelocity[i] + acceleration[i] * (t - startTime[i]);
+    }
+
+    /**
+     * Returns the reference acceleration at a time since the profile was solved
+     *
+     * @param t seconds since {@link #solve} was called
+     * @return acceleration
+     */
+    public double acceleration(double t) {
+        if (isFinished(t)) {
+            return 0.0;
+        }
+        return acceleration[segment(t)];
+    }
+
+    /**
+     * Returns true once the profile has reached the goal
+     *
+     * @param t seconds since {@link #solve} was called
+     * @return True if the profile is complete
+     */
+    public boolean isFinished(double t) {
+        return t >= startTime[4];
+    }
+
+    /**
+     * Returns the total time the profile takes
+     *
+     * @return time in seconds
+     */
+    public double totalTime() {
+        return startTime[4];
+    }
+
+    private int segment(double t) {
+        int i = 0;
+        while (i < 3 && t >= startTime[i + 1]) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,204 @@
+package frc.robot.helpers;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.revrobotics.spark.config.SignalsConfig;
+import com.revrobotics.spark.config.SparkBaseConfig;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Declares which periodic signals a SparkMax actually needs and how often.
+ * Anything not declared is slowed down to {@link #kUnusedPeriodMs} so the
+ * controller stops flooding the CAN bus with values nobody reads.
+ * <p>
+ * Every budget that gets applied is remembered so {@link #report()} can print
+ * an estimate of the bus load compared to REV's default rates.
+ */
+public class SparkStatusBudget {
+    // Period for signals the code never reads
+    public static final int                      kUnusedPeriodMs = 500;
+
+    // Roughly one extended frame with 8 data bytes, including bit stuffing
+    private static final double                  kBitsPerFrame   = 150.0;
+
+    private static final double                  kBusBitsPerSec  = 1_000_000.0;
+
+    private static final List<SparkStatusBudget> applied         = new ArrayList<>();
+
+    /**
+     * The status frames a SparkMax sends, with REV's default period for each
+     */
+    public enum Frame {
+        STATUS_0(10), STATUS_1(250), STATUS_2(20), STATUS_3(200), STATUS_4(200), STATUS_5(200), STATUS_7(200);
+
+        public final int defaultPeriodMs;
+
+        Frame(int new_defaultPeriodMs) {
+            defaultPeriodMs = new_defaultPeriodMs;
+        }
+    }
+
+    /**
+     * The signals that can be budgeted, and the frame each one travels in
+     */
+    public enum Signal {
+        APPLIED_OUTPUT(Frame.STATUS_0), BUS_VOLTAGE(Frame.STATUS_0), OUTPUT_CURRENT(Frame.STATUS_0),
+        MOTOR_TEMPERATURE(Frame.STATUS_0), LIMITS(Frame.STATUS_0), FAULTS(Frame.STATUS_1), WARNINGS(Frame.STATUS_1),
+        PRIMARY_ENCODER_VELOCITY(Frame.STATUS_2), PRIMARY_ENCODER_POSITION(Frame.STATUS_2),
+        ANALOG_VOLTAGE(Frame.STATUS_3), ANALOG_VELOCITY(Frame.STATUS_3), ANALOG_POSITION(Frame.STATUS_3),
+        ALT_ENCODER_VELOCITY(Frame.STATUS_4), ALT_ENCODER_POSITION(Frame.STATUS_4),
+        ABSOLUTE_ENCODER_POSITION(Frame.STATUS_5), ABSOLUTE_ENCODER_VELOCITY(Frame.STATUS_5),
+        I_ACCUMULATION(Frame.STATUS_7);
+
+        public final Frame frame;
+
+        Signal(Frame new_frame) {
+            frame = new_frame;
+        }
+    }
+
+    private final String               name;
+
+    private final Map<Signal, Integer> periods = new EnumMap<>(Signal.class);
+
+    /**
+     * Creates an empty budget, every signal starts out unused
+     *
+     * @param new_name of the controller, used in the report
+     */
+    public SparkStatusBudget(String new_name) {
+        name = new_name;
+    }
+
+    /**
+     * Declares a signal the code reads and how often it needs to be updated
+     *
+     * @param signal   that is read
+     * @param periodMs how often the signal should be sent
+     * @return this budget, for chaining
+     */
+    public SparkStatusBudget use(Signal signal, int periodMs) {
+        periods.put(signal, periodMs);
+        return this;
+    }
+
+    /**
+     * Writes the budget into a config. Call this right before configure() on the
+     * controller the budget was made for.
+     *
+     * @param config to update
+     * @return void
+     */
+    public void apply(SparkBaseConfig config) {
+        SignalsConfig signals = config.signals;
+
+        signals.appliedOutputPeriodMs(periodOf(Signal.APPLIED_OUTPUT))
+                .busVoltagePeriodMs(periodOf(Signal.BUS_VOLTAGE))
+                .outputCurrentPeriodMs(periodOf(Signal.OUTPUT_CURRENT))
+                .motorTemperaturePeriodMs(periodOf(Signal.MOTOR_TEMPERATURE))
+                .limitsPeriodMs(periodOf(Signal.LIMITS))
+                .faultsPeriodMs(periodOf(Signal.FAULTS))
+                .warningsPeriodMs(periodOf(Signal.WARNINGS))
+                .primaryEncoderVelocityPeriodMs(periodOf(Signal.PRIMARY_ENCODER_VELOCITY))
+                .primaryEncoderPositionPeriodMs(periodOf(Signal.PRIMARY_ENCODER_POSITION))
+                .analogVoltagePeriodMs(periodOf(Signal.ANALOG_VOLTAGE))
+                .analogVelocityPeriodMs(periodOf(Signal.ANALOG_VELOCITY))
+                .analogPositionPeriodMs(periodOf(Signal.ANALOG_POSITION))
+                .externalOrAltEncoderVelocity(periodOf(Signal.ALT_ENCODER_VELOCITY))
+                .externalOrAltEncoderPosition(periodOf(Signal.ALT_ENCODER_POSITION))
+                .absoluteEncoderPositionPeriodMs(periodOf(Signal.ABSOLUTE_ENCODER_POSITION))
+                .absoluteEncoderVelocityPeriodMs(periodOf(Signal.ABSOLUTE_ENCODER_VELOCITY))
+                .iAccumulationPeriodMs(periodOf(Signal.I_ACCUMULATION));
+
+        synchronized (applied) {
+            applied.remove(this);
+            applied.add(this);
+        }
+    }
+
+    /**
+     * Returns the name this budget was created with
+     *
+     * @return name of the controller
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Estimates the frames per second this controller sends. A frame goes out as
+     * often as its fastest signal needs.
+     *
+     * @return frames per second
+     */
+    public double getFramesPerSecond() {
+        double total = 0.0;
+        for (Frame frame : Frame.values()) {
+            int period = kUnusedPeriodMs;
+            for (Signal signal : Signal.values()) {
+                if (signal.frame == frame) {
+                    period = Math.min(period, periodOf(signal));
+                }
+            }
+            total += 1000.0 / period;
+        }
+        return total;
+    }
+
+    /**
+     * Estimates the frames per second a controller sends at REV's default rates
+     *
+     * @return frames per second
+     */
+    public static double getDefaultFramesPerSecond() {
+        double total = 0.0;
+        for (Frame frame : Frame.values()) {
+            total += 1000.0 / frame.defaultPeriodMs;
+        }
+        return total;
+    }
+
+    /**
+     * Converts frames per second into a percentage of the CAN bus
+     *
+     * @param framesPerSecond to convert
+     * @return estimated bus utilization in percent
+     */
+    public static double toBusUtilization(double framesPerSecond) {
+        return 100.0 * framesPerSecond * kBitsPerFrame / kBusBitsPerSec;
+    }
+
+    /**
+     * Prints and publishes the estimated bus load of every applied budget
+     *
+     * @return void
+     */
+    public static void report() {
+        double budgeted = 0.0;
+        double defaults = 0.0;
+
+        synchronized (applied) {
+            for (SparkStatusBudget budget : applied) {
+                double fps = budget.getFramesPerSecond();
+                budgeted += fps;
+                defaults += getDefaultFramesPerSecond();
+
+                SmartDashboard.putNumber("CANBudget/" + budget.name, toBusUtilization(fps));
+                System.out.printf("CANBudget: %-20s %6.1f frames/s (%.2f%% of bus)%n", budget.name, fps,
+                        toBusUtilization(fps));
+            }
+        }
+        SmartDashboard.putNumber("CANBudget/Budgeted", toBusUtilization(budgeted));
+        SmartDashboard.putNumber("CANBudget/Default", toBusUtilization(defaults));
+        System.out.printf("CANBudget: SparkMax total %.2f%% of bus, %.2f%% at default rates%n",
+                toBusUtilization(budgeted), toBusUtilization(defaults));
+    }
+
+    private int periodOf(Signal signal) {
+        return periods.getOrDefault(signal, kUnusedPeriodMs);
+    }
+}
@@ -0,0 +1,188 @@
+package frc.robot.helpers;
+
+/**
+ * Uniform grid over a fixed set of up to 64 points, for nearest point and
+ * points within a radius queries that are cheap enough to run every loop.
+ * Points are referred to by their index in the arrays the grid was built from,
+ * and queries take a bit mask of which indexes to consider, so one grid can
+ * answer "nearest reef face" and "nearest anything". Nothing is allocated after
+ * the constructor.
+ */
+public class SpatialGrid {
+    public static final long kAll = -1L;
+
+    private final double[]   xs;
+
+    private final double[]   ys;
+
+    private final double     cellSize;
+
+    private final double     minX;
+
+    private final double     minY;
+
+    private final int        columns;
+
+    private final int        rows;
+
+    // Points of cell c are items[cellStart[c]] to items[cellStart[c + 1] - 1]
+    private final int[]      cellStart;
+
+    private final int[]      items;
+
+    /**
+     * Builds the grid. The arrays are kept, not copied, don't change them.
+     *
+     * @param new_xs       x of each point in meters
+     * @param new_ys       y of each point in meters
+     * @param new_cellSize width of a grid cell in meters
+     */
+    public SpatialGrid(double[] new_xs, double[] new_ys, double new_cellSize) {
+        if (new_xs.length != new_ys.length || new_xs.length > 64) {
+            throw new IllegalArgumentException("SpatialGrid needs matching x and y arrays of at most 64 points");
+        }
+        xs       = new_xs;
+        ys       = new_ys;
+        cellSize = new_cellSize;
+
+        double min_x = 0.0, min_y = 0.0, max_x = 0.0, max_y = 0.0;
+        for (int i = 0; i < xs.length; i++) {
+            min_x = i == 0 ? xs[i] : Math.min(min_x, xs[i]);
+            min_y = i == 0 ? ys[i] : Math.min(min_y, ys[i]);
+            max_x = i == 0 ? xs[i] : Math.max(max_x, xs[i]);
+            max_y = i == 0 ? ys[i] : Math.max(max_y, ys[i]);
+        }
+        minX    = min_x;
+        minY    = min_y;
+        columns = (int) Math.floor((max_x - min_x) / cellSize) + 1;
+        rows    = (int) Math.floor((max_y - min_y) / cellSize) + 1;
+
+        // Count the points in each cell, then turn the counts into start offsets
+        cellStart = new int[columns * rows + 1];
+        for (int i = 0; i < xs.length; i++) {
+            cellStart[cellOf(xs[i], ys[i]) + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        items = new int[xs.length];
+        int[] fill = new int[columns * rows];
+        for (int i = 0; i < xs.length; i++) {
+            int c = cellOf(xs[i], ys[i]);
+            items[cellStart[c] + fill[c]++] = i;
+        }
+    }
+
+    /**
+     * Finds the closest point to a position
+     *
+     * @param x    of the position in meters
+     * @param y    of the position in meters
+     * @param mask bit i set to consider point i, {@link #kAll} for every point
+     * @return index of the closest point, or -1 if the mask matches none
+     */
+    public int nearest(double x, double y, long mask) {
+        int    column    = column(x);
+        int    row       = row(y);
+        int    best      = -1;
+        double bestDist2 = Double.POSITIVE_INFINITY;
+
+        for (int ring = 0;; ring++) {
+            int     left   = column - ring;
+            int     right  = column + ring;
+            int     bottom = row - ring;
+            int     top    = row + ring;
+            boolean whole  = left <= 0 && bottom <= 0 && right >= columns - 1 && top >= rows - 1;
+
+            // Cells at exactly this ring distance
+            for (int r = Math.max(bottom, 0); r <= Math.min(top, rows - 1); r++) {
+                boolean edge = r == bottom || r == top;
+                for (int c = Math.max(left, 0); c <= Math.min(right, columns - 1); c++) {
+                    if (!edge && c != left && c != right) {
+                        continue;
+                    }
+                    int cell = r * columns + c;
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        int point = items[i];
+                        if ((mask & (1L << point)) == 0) {
+                            continue;
+                        }
+                        double dx    = xs[point] - x;
+                        double dy    = ys[point] - y;
+                        double dist2 = dx * dx + dy * dy;
+                        if (dist2 < bestDist2) {
+                            bestDist2 = dist2;
+                            best      = point;
+                        }
+                    }
+                }
+            }
+            if (whole) {
+                return best;
+            }
+
+            // Anything in a later ring is at least this far away. Sides at the edge of
+            // the grid have nothing beyond them.
+            double bound = Double.POSITIVE_INFINITY;
+            if (left > 0) {
+                bound = Math.min(bound, x - (minX + left * cellSize));
+            }
+            if (right < columns - 1) {
+                bound = Math.min(bound, minX + (right + 1) * cellSize - x);
+            }
+            if (bottom > 0) {
+                bound = Math.min(bound, y - (minY + bottom * cellSize));
+            }
+            if (top < rows - 1) {
+                bound = Math.min(bound, minY + (top + 1) * cellSize - y);
+            }
+            if (best >= 0 && bound > 0.0 && bound * bound >= bestDist2) {
+                return best;
+            }
+        }
+    }
+
+    /**
+     * Finds every point within a radius of a position, in no particular order
+     *
+     * @param x      of the position in meters
+     * @param y      of the position in meters
+     * @param radius in meters
+     * @param mask   bit i set to consider point i, {@link #kAll} for every point
+     * @param out    filled with the indexes of the points found
+     * @return how many indexes were written to out, at most out.length
+     */
+    public int withinRadius(double x, double y, double radius, long mask, int[] out) {
+        int    count   = 0;
+        double radius2 = radius * radius;
+        for (int r = row(y - radius); r <= row(y + radius); r++) {
+            for (int c = column(x - radius); c <= column(x + radius); c++) {
+                int cell = r * columns + c;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1] && count < out.length; i++) {
+                    int point = items[i];
+                    if ((mask & (1L << point)) == 0) {
+                        continue;
+                    }
+                    double dx = xs[point] - x;
+                    double dy = ys[point] - y;
+                    if (dx * dx + dy * dy <= radius2) {
+                        out[count++] = point;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private int cellOf(double x, double y) {
+        return row(y) * columns + column(x);
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((x - minX) / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((y - minY) / cellSize)));
+    }
+}
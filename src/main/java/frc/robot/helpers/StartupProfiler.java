@@ -0,0 +1,95 @@
+package frc.robot.helpers;
+
+import java.lang.management.ManagementFactory;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Records how long each phase of robot startup takes, so we can see where the
+ * time goes after a brownout reboot. Phases can be recorded from any thread,
+ * {@link #report()} prints them in the order they finished and publishes them
+ * under Boot/ on the dashboard.
+ */
+public class StartupProfiler {
+    private static final long         start  = System.nanoTime();
+
+    private static final Queue<Phase> phases = new ConcurrentLinkedQueue<>();
+
+    private record Phase(String name, String thread, double startMs, double ms) {
+    }
+
+    private StartupProfiler() {
+    }
+
+    /**
+     * Runs and times one phase of startup
+     *
+     * @param <T>   type the phase creates
+     * @param name  of the phase
+     * @param phase work to do
+     * @return what the phase created
+     */
+    public static <T> T time(String name, Supplier<T> phase) {
+        long phaseStart = System.nanoTime();
+        try {
+            return phase.get();
+        } finally {
+            record(name, phaseStart);
+        }
+    }
+
+    /**
+     * Runs and times one phase of startup that doesn't create anything
+     *
+     * @param name  of the phase
+     * @param phase work to do
+     * @return void
+     */
+    public static void run(String name, Runnable phase) {
+        long phaseStart = System.nanoTime();
+        try {
+            phase.run();
+        } finally {
+            record(name, phaseStart);
+        }
+    }
+
+    /**
+     * Records a phase that was timed elsewhere
+     *
+     * @param name       of the phase
+     * @param phaseStart System.nanoTime() when the phase started
+     * @return void
+     */
+    public static void record(String name, long phaseStart) {
+        long now = System.nanoTime();
+        phases.add(new Phase(name, Thread.currentThread().getName(), (phaseStart - start) / 1e6,
+                (now - phaseStart) / 1e6));
+    }
+
+    /**
+     * Prints every phase and the total time to code ready. Call once at the end
+     * of Robot's constructor.
+     *
+     * @return void
+     */
+    public static void report() {
+        double codeReadyMs = (System.nanoTime() - start) / 1e6;
+        long   jvmUptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+
+        System.out.println("StartupProfiler:     start       ms  thread            phase");
+        for (Phase phase : phases) {
+            System.out.printf("StartupProfiler: %9.1f %8.1f  %-16s  %s%n", phase.startMs(), phase.ms(), phase.thread(),
+                    phase.name());
+            SmartDashboard.putNumber("Boot/" + phase.name() + "Ms", phase.ms());
+        }
+        System.out.printf("StartupProfiler: code ready %.1f ms after Robot started, %d ms after the JVM started%n",
+                codeReadyMs, jvmUptimeMs);
+        SmartDashboard.putNumber("Boot/CodeReadyMs", codeReadyMs);
+        SmartDashboard.putNumber("Boot/JvmUptimeMs", jvmUptimeMs);
+        SmartDashboard.putBoolean("Boot/Parallel", ParallelInit.kEnabled);
+    }
+}
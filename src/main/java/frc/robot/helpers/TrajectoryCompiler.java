@@ -0,0 +1,158 @@
+package frc.robot.helpers;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pathplanner.lib.config.RobotConfig;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectoryState;
+
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Build time tool, run by the compileTrajectories Gradle task. Generates the
+ * ideal trajectory of every PathPlanner path using the robot config from the
+ * PathPlanner GUI settings and writes them to a {@link CompiledTrajectories}
+ * file. Autos are stored as the list of paths they run.
+ */
+public class TrajectoryCompiler {
+    private TrajectoryCompiler() {
+    }
+
+    /**
+     * @param args optional output file, defaults to the deploy directory
+     */
+    public static void main(String... args) throws Exception {
+        File        deployDirectory = Filesystem.getDeployDirectory();
+        File        output          = args.length > 0 ? new File(args[0])
+                : new File(deployDirectory, CompiledTrajectories.kFileName);
+        RobotConfig robotConfig     = RobotConfig.fromGUISettings();
+
+        // Paths, in a stable order so ids don't move around between builds
+        Map<String, List<PathPlannerTrajectoryState>> paths = new LinkedHashMap<>();
+        for (String name : listNames(new File(deployDirectory, "pathplanner/paths"), ".path")) {
+            PathPlannerPath path       = PathPlannerPath.fromPathFile(name);
+            var             trajectory = path.getIdealTrajectory(robotConfig);
+            if (trajectory.isEmpty()) {
+                System.out.println("TrajectoryCompiler: " + name + " has no ideal starting state, skipped");
+                continue;
+            }
+            paths.put(name, trajectory.get().getStates());
+        }
+
+        Map<String, List<Integer>> autos    = new LinkedHashMap<>();
+        List<String>               pathList = new ArrayList<>(paths.keySet());
+        ObjectMapper               mapper   = new ObjectMapper();
+        for (String name : listNames(new File(deployDirectory, "pathplanner/autos"), ".auto")) {
+            List<Integer> ids = new ArrayList<>();
+            collectPaths(mapper.readTree(new File(deployDirectory, "pathplanner/autos/" + name + ".auto")),
+                    pathList, ids);
+            autos.put(name, ids);
+        }
+
+        write(output, paths, autos);
+
+        int states = paths.values().stream().mapToInt(List::size).sum();
+        System.out.printf("TrajectoryCompiler: wrote %d paths, %d autos, %d states (%d bytes) to %s%n", paths.size(),
+                autos.size(), states, output.length(), output);
+    }
+
+    /**
+     * Writes the file described in {@link CompiledTrajectories}
+     *
+     * @param output file to write
+     * @param paths  states of each path, by name
+     * @param autos  path ids of each auto, by name
+     * @throws IOException
+     */
+    private static void write(File output, Map<String, List<PathPlannerTrajectoryState>> paths,
+            Map<String, List<Integer>> autos) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)))) {
+            out.writeInt(CompiledTrajectories.kMagic);
+            out.writeInt(CompiledTrajectories.kVersion);
+            out.writeInt(paths.size());
+            out.writeInt(autos.size());
+
+            int firstState = 0;
+            for (var path : paths.entrySet()) {
+                writeName(out, path.getKey());
+                out.writeInt(firstState);
+                out.writeInt(path.getValue().size());
+                firstState += path.getValue().size();
+            }
+
+            for (var auto : autos.entrySet()) {
+                writeName(out, auto.getKey());
+                out.writeShort(auto.getValue().size());
+                for (int id : auto.getValue()) {
+                    out.writeShort(id);
+                }
+            }
+
+            for (var states : paths.values()) {
+                for (PathPlannerTrajectoryState state : states) {
+                    out.writeFloat((float) state.timeSeconds);
+                    out.writeFloat((float) state.pose.getX());
+                    out.writeFloat((float) state.pose.getY());
+                    out.writeFloat((float) state.pose.getRotation().getRadians());
+                    out.writeFloat((float) state.fieldSpeeds.vxMetersPerSecond);
+                    out.writeFloat((float) state.fieldSpeeds.vyMetersPerSecond);
+                    out.writeFloat((float) state.fieldSpeeds.omegaRadiansPerSecond);
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks an auto's command tree and records every path it follows, in order
+     *
+     * @param node     part of the auto JSON to search
+     * @param pathList compiled path names, index is the path id
+     * @param ids      path ids found so far
+     * @return void
+     */
+    private static void collectPaths(JsonNode node, List<String> pathList, List<Integer> ids) {
+        if (node.isObject() && "path".equals(node.path("type").asText())) {
+            String name = node.path("data").path("pathName").asText();
+            int    id   = pathList.indexOf(name);
+            if (id < 0) {
+                System.out.println("TrajectoryCompiler: auto uses missing path " + name);
+            } else {
+                ids.add(id);
+            }
+            return;
+        }
+        for (JsonNode child : node) {
+            collectPaths(child, pathList, ids);
+        }
+    }
+
+    private static List<String> listNames(File directory, String extension) {
+        List<String> names = new ArrayList<>();
+        File[]       files = directory.listFiles((dir, name) -> name.endsWith(extension));
+        if (files != null) {
+            Arrays.sort(files);
+            for (File file : files) {
+                names.add(file.getName().substring(0, file.getName().length() - extension.length()));
+            }
+        }
+        return names;
+    }
+
+    private static void writeName(DataOutputStream out, String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+}
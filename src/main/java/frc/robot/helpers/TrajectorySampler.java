@@ -0,0 +1,74 @@
+package frc.robot.helpers;
+
+import frc.robot.helpers.CompiledTrajectories.State;
+
+/**
+ * Samples one compiled path as time moves forward. A path follower asks for a
+ * slightly later time every loop, so instead of searching all the states like
+ * {@link CompiledTrajectories#sample} does, the sampler remembers which state
+ * it was at last time and steps forward from there. That's usually zero or one
+ * step per loop. Going back in time still works, it walks backwards.
+ * <p>
+ * Each sampler owns the {@link State} it fills in, so make one per command and
+ * reuse it; nothing is allocated while sampling.
+ */
+public class TrajectorySampler {
+    private final CompiledTrajectories trajectories;
+
+    private final int                  path;
+
+    private final int                  first;
+
+    private final int                  last;
+
+    private final State                state = new State();
+
+    private int                        cursor;
+
+    /**
+     * @param new_trajectories to sample from
+     * @param new_path         id of the path to sample
+     */
+    public TrajectorySampler(CompiledTrajectories new_trajectories, int new_path) {
+        trajectories = new_trajectories;
+        path         = new_path;
+        first        = trajectories.getFirstState(path);
+        last         = trajectories.getStateCount(path) - 1;
+    }
+
+    /**
+     * Moves the cursor back to the start of the path, call when the path is
+     * started again
+     *
+     * @return void
+     */
+    public void reset() {
+        cursor = 0;
+    }
+
+    /**
+     * Samples the path
+     *
+     * @param t    seconds since the path started
+     * @param flip true to flip the path for the red alliance
+     * @return the sampler's state, overwritten by the next call
+     */
+    public State sample(double t, boolean flip) {
+        // Keep cursor on the last state at or before t
+        while (cursor < last && trajectories.getStateTime(path, cursor + 1) <= t) {
+            cursor++;
+        }
+        while (cursor > 0 && trajectories.getStateTime(path, cursor) > t) {
+            cursor--;
+        }
+        trajectories.interpolate(first + cursor, first + Math.min(cursor + 1, last), t, flip, state);
+        return state;
+    }
+
+    /**
+     * @return how long the path takes to run in seconds
+     */
+    public double getTotalTime() {
+        return trajectories.getTotalTime(path);
+    }
+}
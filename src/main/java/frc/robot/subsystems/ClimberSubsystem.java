@@ -1,9 +1,14 @@
 package frc.robot.subsystems;
 
+import com.revrobotics.spark.SparkBase.PersistMode;
+import com.revrobotics.spark.SparkBase.ResetMode;
 import com.revrobotics.spark.SparkLowLevel.MotorType;
 import com.revrobotics.spark.SparkMax;
+import com.revrobotics.spark.config.SparkMaxConfig;
 
 import edu.wpi.first.epilogue.Logged;
+import frc.robot.helpers.ParallelInit;
+import frc.robot.helpers.SparkStatusBudget;
 
 /**
  *
@@ -18,12 +23,21 @@ public class ClimberSubsystem extends ObotSubsystemBase {
     *
     */
     public ClimberSubsystem() {
+        SparkMaxConfig leftConfig  = new SparkMaxConfig();
+        SparkMaxConfig rightConfig = new SparkMaxConfig();
+
         leftClimbMotor = new SparkMax(4, MotorType.kBrushless);
-        leftClimbMotor.setInverted(false);
+        leftConfig.inverted(false);
+        // Nothing is read back from the climber motors yet
+        new SparkStatusBudget("ClimbLeft").apply(leftConfig);
+        ParallelInit.configure("ClimberLeft", leftClimbMotor, leftConfig,
+                ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
 
         rightClimbMotor = new SparkMax(5, MotorType.kBrushless);
-        rightClimbMotor.setInverted(false);
-
+        rightConfig.inverted(false);
+        new SparkStatusBudget("ClimbRight").apply(rightConfig);
+        ParallelInit.configure("ClimberRight", rightClimbMotor, rightConfig,
+                ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
     }
 
     @Override
@@ -1,6 +1,6 @@
 package frc.robot.subsystems;
 
-import java.io.File;
+import java.util.Set;
 import java.util.function.DoubleSupplier;
 
 import javax.naming.ConfigurationException;
@@ -17,24 +17,35 @@ import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Config;
+import frc.robot.AllianceLandmarks;
+import frc.robot.AllianceLandmarks.Landmark;
+import frc.robot.commands.drivebase.FollowCompiledPathCommand;
 import frc.robot.commands.drivebase.MoveAtAngle;
 import frc.robot.commands.drivebase.MoveFacingCommand;
 import frc.robot.commands.drivebase.MoveManualCommandField;
 import frc.robot.commands.drivebase.MoveToCommand;
 import frc.robot.commands.drivebase.StopCommand;
-import frc.robot.config.ConfigurationLoader;
+import frc.robot.config.ConfigBundle;
 import frc.robot.config.DriveBaseSubsystemConfig;
+import frc.robot.config.TunableNumber;
+import frc.robot.helpers.CompiledTrajectories;
+import frc.robot.helpers.GridPathfinder;
 import frc.robot.helpers.LimelightDevice;
+import frc.robot.helpers.PathCache;
+import frc.robot.helpers.RouteTable;
+import frc.robot.helpers.StartupProfiler;
 import swervelib.SwerveController;
 import swervelib.SwerveDrive;
 import swervelib.SwerveDriveTest;
-import swervelib.parser.SwerveParser;
 import swervelib.telemetry.SwerveDriveTelemetry;
 import swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
 
@@ -55,7 +66,7 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
 
     private Translation2d            centerOfRotationMeters = new Translation2d();
 
-    private final TrapezoidProfile   xy_profile;
+    private TrapezoidProfile         xy_profile;
 
     private Translation2d            xy_speed               = new Translation2d();
 
@@ -67,6 +78,9 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
 
     private double                   xy_last                = 0.0;
 
+    // Path length still to drive after xy_target, so the profile doesn't stop there
+    private double                   xy_beyond              = 0.0;
+
     private PIDController            xy_PID                 = new PIDController(6.0, 0.0, 0.0);
 
     // TODO: Maxrotational speed/accel?
@@ -89,14 +103,31 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
 
     private DriveBaseSubsystemConfig driveBaseSubsystemConfig;
 
+    private TunableNumber            maximumSpeedInFeet;
+
+    private TunableNumber            thetaTolerance;
+
+    private TunableNumber            thetaKp;
+
+    private TunableNumber            thetaKi;
+
+    private TunableNumber            thetaKd;
+
+    private GridPathfinder           pathfinder;
+
     /**
      * Constructor
      */
     public DriveBaseSubsystem() {
+        // Every file was started parsing by ConfigBundle at the start of Robot()
         try {
+            long phaseStart = System.nanoTime();
             loadConfigurationFiles();
-            configureSwerveDrive();
-            configureAutoBuilder();
+            StartupProfiler.record("DriveBase/ConfigFiles", phaseStart);
+
+            StartupProfiler.run("DriveBase/SwerveDrive", this::configureSwerveDrive);
+            configureAutoBuilder(ConfigBundle.getRobotConfig());
+            pathfinder = ConfigBundle.getNavgrid();
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -113,10 +144,7 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
         r_PID.setIntegratorRange(-0.04, 0.04);
         r_PID.setSetpoint(0);
 
-        xy_profile = new TrapezoidProfile(
-                new TrapezoidProfile.Constraints(driveBaseSubsystemConfig.getMaximumSpeedInMeters(), 3.0)); // TODO: Max
-                                                                                                            // linear
-                                                                                                            // accel?
+        applyConfig();
     }
 
     /**
@@ -126,7 +154,7 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
      */
     @Override
     public void periodic() {
-        Pose2d current_pose = swerveDrive.swerveDrivePoseEstimator.getEstimatedPosition();
+        Pose2d current_pose = sensors.getPose();
 
         if (!isSimulation) {
             limelightPeriodic(current_pose.getRotation().getDegrees());
@@ -137,6 +165,25 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
         putDashboardNumber("RobotRot", current_pose.getRotation().getDegrees());
     }
 
+    /**
+     * Updates odometry and reads the gyro and module encoders into the snapshot.
+     * Odometry runs here instead of on YAGSL's own thread so it lines up with
+     * everything else read this loop.
+     *
+     * @param snapshot to fill in
+     * @return void
+     */
+    @Override
+    void captureSensors(SensorSnapshot snapshot) {
+        swerveDrive.updateOdometry();
+
+        SwerveModulePosition[] positions = swerveDrive.getModulePositions();
+        for (int i = 0; i < positions.length && i < SensorSnapshot.kModuleCount; i++) {
+            snapshot.setModule(i, positions[i].distanceMeters, positions[i].angle.getRadians());
+        }
+        snapshot.setDrive(swerveDrive.getYaw().getRadians(), swerveDrive.getPose());
+    }
+
     /**
      * Called once per timeslice while simulating
      *
@@ -149,21 +196,25 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
     }
 
     /**
-     * Returns the latest pose of the robot from odometery
+     * Returns the pose of the robot from this loop's sensor snapshot, so every
+     * command and subsystem in a loop works from the same pose even after vision
+     * moves the estimator
      *
      * @return current pose of robot
      */
     public Pose2d getPose() {
-        return swerveDrive.getPose();
+        return sensors.getPose();
     }
 
     /**
-     * Resets the Odometry of the Swerve Drive
+     * Resets the Odometry of the Swerve Drive, and the snapshot with it so the
+     * rest of the loop sees the new pose
      * 
      * @param new_pose
      */
     public void resetPose(Pose2d new_pose) {
         swerveDrive.resetOdometry(new_pose);
+        sensors.setDrive(swerveDrive.getYaw().getRadians(), swerveDrive.getPose());
     }
 
     /**
@@ -223,6 +274,112 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
         return new MoveFacingCommand(this, new_x, new_y, new_translation);
     }
 
+    /**
+     * Follows a preloaded PathPlanner path. The alliance is checked when the
+     * command starts, so it picks the already flipped red path if needed.
+     *
+     * @param pathName of the path file, without .path
+     * @return a Command to follow the path
+     */
+    public Command followPath(String pathName) {
+        return Commands.defer(() -> AutoBuilder.followPath(PathCache.get(pathName)), Set.of(this));
+    }
+
+    /**
+     * Follows the precomputed route between two landmarks. If the route table
+     * isn't built yet it pathfinds to the landmark instead.
+     *
+     * @param from name of the AllianceLandmarks field we are at, like
+     *             coralStationLeft
+     * @param to   name of the AllianceLandmarks field to go to
+     * @return a Command to follow the route
+     */
+    public Command followRoute(String from, String to) {
+        return Commands.defer(() -> routeCommand(RouteTable.indexOf(from), RouteTable.indexOf(to)), Set.of(this));
+    }
+
+    /**
+     * Follows the precomputed route from the landmark nearest the robot to the
+     * landmark nearest that one, like from the reef face we're scoring on to
+     * the coral station on that side. Both are picked when the command starts.
+     *
+     * @param landmarks of the current alliance
+     * @param from      landmarks to start from, like {@link Landmark#kReefFaces}
+     * @param to        landmarks to go to
+     * @return a Command to follow the route
+     */
+    public Command followRoute(AllianceLandmarks landmarks, long from, long to) {
+        return Commands.defer(() -> {
+            Pose2d   pose  = sensors.getPose();
+            Landmark start = landmarks.nearest(pose.getX(), pose.getY(), from);
+            if (start == null) {
+                return Commands.none();
+            }
+            Landmark end = landmarks.nearest(landmarks.getX(start), landmarks.getY(start), to);
+            if (end == null) {
+                return Commands.none();
+            }
+            return routeCommand(RouteTable.indexOf(start.key), RouteTable.indexOf(end.key));
+        }, Set.of(this));
+    }
+
+    /**
+     * @param from route table index of the landmark we are at
+     * @param to   route table index of the landmark to go to
+     * @return a Command to follow the route, or to pathfind to the landmark if
+     *         the route table isn't built yet
+     */
+    private Command routeCommand(int from, int to) {
+        var      alliance = DriverStation.getAlliance();
+        Alliance side     = alliance.isPresent() ? alliance.get() : Alliance.Blue;
+        var      route    = RouteTable.get(side, from, to);
+        if (route != null) {
+            return AutoBuilder.followPath(route);
+        }
+        Pose2d target = RouteTable.getLandmark(side, to);
+        return target != null ? new MoveToCommand(this, target) : Commands.none();
+    }
+
+    /**
+     * Follows a path that was compiled at build time by the compileTrajectories
+     * task. Falls back to the preloaded PathPlanner path if the path isn't in the
+     * compiled file.
+     *
+     * @param pathName of the path file, without .path
+     * @return a Command to follow the path
+     */
+    public Command followCompiledPath(String pathName) {
+        CompiledTrajectories trajectories = CompiledTrajectories.getInstance();
+        int                  pathId       = trajectories == null ? -1 : trajectories.getPathId(pathName);
+        if (pathId < 0) {
+            System.out.println("DriveBaseSubsystem: " + pathName + " not compiled, using PathPlanner");
+            return followPath(pathName);
+        }
+        return new FollowCompiledPathCommand(this, trajectories, pathId);
+    }
+
+    /**
+     * Runs every path of a compiled auto back to back. Only the driving is
+     * compiled, autos with named commands still need AutoBuilder.
+     *
+     * @param autoName of the auto file, without .auto
+     * @return a Command to drive the auto, or null if the auto wasn't compiled
+     */
+    public Command followCompiledAuto(String autoName) {
+        CompiledTrajectories trajectories = CompiledTrajectories.getInstance();
+        int[]                pathIds      = trajectories == null ? null : trajectories.getAutoPathIds(autoName);
+        if (pathIds == null) {
+            return null;
+        }
+        // Lock the wheels once the last path is done
+        Command[] commands = new Command[pathIds.length + 1];
+        for (int i = 0; i < pathIds.length; i++) {
+            commands[i] = new FollowCompiledPathCommand(this, trajectories, pathIds[i]);
+        }
+        commands[pathIds.length] = Commands.runOnce(this::stop, this);
+        return Commands.sequence(commands);
+    }
+
     /**
      * Return a Command to test the angle motors
      */
@@ -340,6 +497,23 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
      * @return void
      */
     public void setTarget(Translation2d new_target, Translation2d current_pose) {
+        setTarget(new_target, current_pose, 0.0);
+    }
+
+    /**
+     * Sets an intermediate target translation on a longer path. The robot heads
+     * for the target but the speed is profiled over the whole remaining path, so
+     * it keeps its speed through the target instead of slowing down to stop on
+     * it.
+     *
+     * @param new_target   for the robot
+     * @param current_pose of the robot
+     * @param new_beyond   path length in meters after the target, 0 to stop on
+     *                     it
+     * @return void
+     */
+    public void setTarget(Translation2d new_target, Translation2d current_pose, double new_beyond) {
+        xy_beyond   = new_beyond;
         xy_target   = new_target;
         xy_last     = Math.hypot(xy_target.getX() - current_pose.getX(), xy_target.getY() - current_pose.getY());
         xy_setpoint = new TrapezoidProfile.State(xy_last, xy_setpoint.velocity);
@@ -387,6 +561,16 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
         drive(true, false);
     }
 
+    /**
+     * Returns the pathfinder over the navgrid, used by MoveToCommand to drive
+     * around the reef instead of through it
+     *
+     * @return the pathfinder, or null if the navgrid couldn't be loaded
+     */
+    public GridPathfinder getPathfinder() {
+        return pathfinder;
+    }
+
     /**
      * Locks the Swerve Drive pose
      */
@@ -400,7 +584,39 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
      * @throws ConfigurationException
      */
     private void loadConfigurationFiles() throws ConfigurationException {
-        driveBaseSubsystemConfig = ConfigurationLoader.load("drivebasesubsystem.json", DriveBaseSubsystemConfig.class);
+        driveBaseSubsystemConfig = ConfigBundle.getDriveBaseSubsystemConfig();
+
+        // Dashboard edits and reloaded files both arrive through the tunables, which
+        // re-apply the gains on the robot thread
+        String   table = "DriveBaseSubsystemConfig/";
+        Runnable apply = this::applyConfig;
+        maximumSpeedInFeet = new TunableNumber(table + "maximumSpeedInFeet",
+                driveBaseSubsystemConfig.maximumSpeedInFeet).onChange(apply);
+        thetaTolerance     = new TunableNumber(table + "thetaControllerTolerance",
+                driveBaseSubsystemConfig.thetaControllerTolerance).onChange(apply);
+        thetaKp            = new TunableNumber(table + "thetaControllerPidKp",
+                driveBaseSubsystemConfig.thetaControllerPidKp).onChange(apply);
+        thetaKi            = new TunableNumber(table + "thetaControllerPidKi",
+                driveBaseSubsystemConfig.thetaControllerPidKi).onChange(apply);
+        thetaKd            = new TunableNumber(table + "thetaControllerPidKd",
+                driveBaseSubsystemConfig.thetaControllerPidKd).onChange(apply);
+    }
+
+    /**
+     * Applies the tunable values to the controllers, at startup and whenever one
+     * changes. The swerve drive's maximum speed is only read at startup.
+     *
+     * @return void
+     */
+    private void applyConfig() {
+        if (swerveController != null) {
+            swerveController.thetaController.setTolerance(Math.PI / thetaTolerance.get(), 0.1);
+            swerveController.thetaController.setPID(thetaKp.get(), thetaKi.get(), thetaKd.get());
+        }
+
+        // TODO: Max linear accel?
+        xy_profile = new TrapezoidProfile(
+                new TrapezoidProfile.Constraints(Units.feetToMeters(maximumSpeedInFeet.get()), 3.0));
     }
 
     /**
@@ -408,16 +624,15 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
      */
     private void configureSwerveDrive() {
         try {
-            swerveDrive      = new SwerveParser(new File(Filesystem.getDeployDirectory(), "swerve"))
+            swerveDrive      = ConfigBundle.getSwerveParser()
                     .createSwerveDrive(driveBaseSubsystemConfig.getMaximumSpeedInMeters());
             swerveController = swerveDrive.swerveController;
-            swerveController.thetaController.setTolerance(Math.PI / driveBaseSubsystemConfig.thetaControllerTolerance,
-                    0.1);
-            swerveController.thetaController.setPID(driveBaseSubsystemConfig.thetaControllerPidKp,
-                    driveBaseSubsystemConfig.thetaControllerPidKi, driveBaseSubsystemConfig.thetaControllerPidKd);
 
             SwerveDriveTelemetry.verbosity = TelemetryVerbosity.HIGH;
 
+            // Odometry is updated from captureSensors() at the start of every loop
+            swerveDrive.stopOdometryThread();
+
             swerveDrive.setMotorIdleMode(true);
         } catch (Exception e) {
             e.printStackTrace();
@@ -426,10 +641,14 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
 
     /**
      * Configures AutoBuilder
+     *
+     * @param robotConfig from the PathPlanner GUI settings
      */
-    private void configureAutoBuilder() {
+    private void configureAutoBuilder(RobotConfig robotConfig) {
         try {
-            var robotConfig = RobotConfig.fromGUISettings();
+            if (robotConfig == null) {
+                throw new IllegalStateException("PathPlanner RobotConfig could not be loaded");
+            }
 
             AutoBuilder.configure(this::getPose, // Robot pose supplier
                     this::resetPose, // Method to reset odometry (will be called if your auto has a starting pose)
@@ -503,7 +722,7 @@ public class DriveBaseSubsystem extends ObotSubsystemBase {
         Double  xy_err   = Math.hypot(x_err, y_err);
         boolean at_xy    = xy_err < 0.01;
         Double  velocity = 0.0;
-        xy_setpoint = new TrapezoidProfile.State(-xy_err, xy_setpoint.velocity);
+        xy_setpoint = new TrapezoidProfile.State(-xy_err - xy_beyond, xy_setpoint.velocity);
 
         if (!at_xy) {
             xy_setpoint = xy_profile.calculate(kDt, xy_setpoint, xy_goal);
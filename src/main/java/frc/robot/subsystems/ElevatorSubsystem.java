@@ -10,10 +10,18 @@ import com.revrobotics.spark.config.SparkMaxConfig;
 
 import edu.wpi.first.epilogue.Logged;
 import edu.wpi.first.math.controller.ElevatorFeedforward;
+import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.AsynchronousInterrupt;
 import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.commands.ElevatorCommand;
+import frc.robot.commands.ElevatorHomeCommand;
+import frc.robot.helpers.ParallelInit;
+import frc.robot.helpers.SegmentedProfile;
+import frc.robot.helpers.SparkStatusBudget;
+import frc.robot.helpers.SparkStatusBudget.Signal;
 
 /**
  *
@@ -35,16 +43,46 @@ public class ElevatorSubsystem extends ObotSubsystemBase {
 
     private final DigitalInput     home        = new DigitalInput(0);
 
-    // TODO: Max speed/accel?
-    private final TrapezoidProfile profile     = new TrapezoidProfile(new TrapezoidProfile.Constraints(5.0, 0.75));
+    // Voltage used to drive down onto the home switch
+    private final double           homeVolts   = -3.0;
+
+    private AsynchronousInterrupt  homeInterrupt;
+
+    private volatile boolean       homing      = false;
+
+    private volatile boolean       homed       = false;
+
+    private volatile double        homedTimestamp;
+
+    // A home switch edge the interrupt has seen, waiting for periodic() to zero
+    // the encoder from it. Guarded by this.
+    private HomeEdge               pendingEdge;
 
     private TrapezoidProfile.State goal        = new TrapezoidProfile.State();
 
     private TrapezoidProfile.State setpoint    = new TrapezoidProfile.State();
 
+    // Solved once per target and played back by time. TODO: Max speed/accel?
+    private final SegmentedProfile segments    = new SegmentedProfile(5.0, 0.75);
+
+    private boolean                needsSolve  = true;
+
+    private double                 profileStart;
+
+    // Corrects tracking error against the precomputed profile, the feedforward
+    // does the rest. Starts at 0.5 V per rotation behind, so two rotations add
+    // kS; raise kP until it tracks and add kD if it rings.
+    private final PIDController    trackingPID = new PIDController(0.5, 0.0, 0.0);
+
     // kS, kG, kV, kA TODO: do we need these for loaded intakes?
     ElevatorFeedforward            feedforward = new ElevatorFeedforward(1.0, 1.0, 1.0, 1.0);
 
+    /**
+     * When the home switch closed, and whether that ended a homing run
+     */
+    private record HomeEdge(double timestamp, boolean endsHoming) {
+    }
+
     /**
     *
     */
@@ -53,31 +91,61 @@ public class ElevatorSubsystem extends ObotSubsystemBase {
 
         rightElevatorMotor = new SparkMax(0, MotorType.kBrushless);
         config.inverted(false).voltageCompensation(12.0).idleMode(IdleMode.kBrake);
-        config.encoder.positionConversionFactor(1.0) // TODO determine these
-                .velocityConversionFactor(1.0);
+        // TODO determine these. The SparkMax reports velocity per minute, the profiles
+        // and the snapshot work per second
+        config.encoder.positionConversionFactor(1.0).velocityConversionFactor(1.0 / 60.0);
         config.softLimit.forwardSoftLimit(max_target).forwardSoftLimitEnabled(true).reverseSoftLimit(min_target)
                 .reverseSoftLimitEnabled(true);
-        rightElevatorMotor.configure(config, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+        // periodic() reads position and velocity, the follower needs applied output
+        new SparkStatusBudget("ElevatorRight").use(Signal.PRIMARY_ENCODER_POSITION, 20)
+                .use(Signal.PRIMARY_ENCODER_VELOCITY, 20).use(Signal.APPLIED_OUTPUT, 10).apply(config);
+        ParallelInit.configure("ElevatorRight", rightElevatorMotor, config,
+                ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
         encoder           = rightElevatorMotor.getEncoder();
 
         leftElevatorMotor = new SparkMax(6, MotorType.kBrushless);
         config.inverted(true).voltageCompensation(12.0).idleMode(IdleMode.kBrake).follow(7);
-        leftElevatorMotor.configure(config, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+        new SparkStatusBudget("ElevatorLeft").apply(config);
+        ParallelInit.configure("ElevatorLeft", leftElevatorMotor, config,
+                ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+
+        // The switch pulls the input low when the elevator is home. Handling the edge
+        // in an interrupt stops a homing run right away and timestamps the edge, so
+        // the encoder is zeroed for the moment it happened instead of whenever
+        // periodic() next polls the switch.
+        homeInterrupt = new AsynchronousInterrupt(home, (rising, falling) -> onHomeEdge());
+        homeInterrupt.setInterruptEdges(false, true);
+        homeInterrupt.enable();
     }
 
     // Put methods for controlling this subsystem
     // here. Call these from Commands.
 
+    @Override
+    void captureSensors(SensorSnapshot snapshot) {
+        snapshot.setElevator(encoder.getPosition(), encoder.getVelocity(), home.get());
+    }
+
     @Override
     public void periodic() {
-        setpoint = new TrapezoidProfile.State(encoder.getPosition(), encoder.getVelocity());
-        setpoint = profile.calculate(kDt, setpoint, goal);
+        putDashboardBooleanVerbose("homePos", sensors.getElevatorHomeSwitch());
+        putDashboardBooleanVerbose("homed", homed);
 
-        rightElevatorMotor.setVoltage(feedforward.calculate(setpoint.position, setpoint.velocity));
+        // Read before the edge, the interrupt posts the edge before it clears homing
+        boolean  wasHoming = homing;
+        HomeEdge edge      = takeEdge();
+        if (edge != null) {
+            zeroAt(edge.timestamp(), edge.endsHoming());
+        }
 
-        putDashboardNumberVerbose("manipulator/elevator", setpoint.position);
-        putDashboardBooleanVerbose("homePos", home.get());
+        if (wasHoming) {
+            // Homing drives the motor directly until the interrupt stops it
+            return;
+        }
+
+        followPrecomputedProfile();
 
+        putDashboardNumberVerbose("manipulator/elevator", setpoint.position);
     }
 
     @Override
@@ -94,7 +162,8 @@ public class ElevatorSubsystem extends ObotSubsystemBase {
         } else if (new_target > max_target) {
             target = max_target;
         }
-        goal = new TrapezoidProfile.State(target, 0.0);
+        goal       = new TrapezoidProfile.State(target, 0.0);
+        needsSolve = true;
     }
 
     public boolean atTarget() {
@@ -110,4 +179,161 @@ public class ElevatorSubsystem extends ObotSubsystemBase {
         return new ElevatorCommand(this, position);
     }
 
+    public Command homeCommand() {
+        return new ElevatorHomeCommand(this);
+    }
+
+    /**
+     * Plays back the profile solved for the current goal, solving it first if the
+     * goal changed. Feedforward comes from the profile and the PID only works on
+     * the difference between the profile and the encoder.
+     *
+     * @return void
+     */
+    private void followPrecomputedProfile() {
+        if (needsSolve) {
+            segments.solve(sensors.getElevatorPosition(), sensors.getElevatorVelocity(), goal.position,
+                    goal.velocity);
+            profileStart = sensors.getTimestamp();
+            trackingPID.reset();
+            needsSolve = false;
+        }
+
+        double t = sensors.getTimestamp() - profileStart;
+        setpoint.position = segments.position(t);
+        setpoint.velocity = segments.velocity(t);
+
+        double volts = feedforward.calculateWithVelocities(setpoint.velocity, segments.velocity(t + kDt))
+                + trackingPID.calculate(sensors.getElevatorPosition(), setpoint.position);
+        rightElevatorMotor.setVoltage(volts);
+    }
+
+    /**
+     * Starts driving the elevator down onto the home switch. The reverse soft
+     * limit is lifted because it is based on the encoder we are trying to fix.
+     *
+     * @return void
+     */
+    public void startHoming() {
+        // An edge from before this run would mark the elevator homed without homing it
+        takeEdge();
+        homed = false;
+
+        if (!home.get()) {
+            // Already sitting on the switch, there won't be an edge
+            zeroAt(Timer.getFPGATimestamp(), true);
+            return;
+        }
+
+        setReverseSoftLimit(false);
+        homing = true;
+        rightElevatorMotor.setVoltage(homeVolts);
+    }
+
+    /**
+     * Stops homing, whether or not the switch was reached
+     *
+     * @return void
+     */
+    public void stopHoming() {
+        if (homing) {
+            homing = false;
+            rightElevatorMotor.stopMotor();
+        }
+        setReverseSoftLimit(true);
+    }
+
+    /**
+     * Returns true once the encoder has been zeroed on the home switch
+     *
+     * @return True if the elevator has been homed
+     */
+    public boolean isHomed() {
+        return homed;
+    }
+
+    /**
+     * Returns the FPGA timestamp of the last home switch edge
+     *
+     * @return timestamp in seconds
+     */
+    public double getHomedTimestamp() {
+        return homedTimestamp;
+    }
+
+    /**
+     * Called from the interrupt thread when the home switch closes. Only stops a
+     * homing run and hands the edge to periodic(), which owns the encoder and the
+     * profile state.
+     *
+     * @return void
+     */
+    private void onHomeEdge() {
+        boolean endsHoming = homing;
+        if (endsHoming) {
+            rightElevatorMotor.stopMotor();
+        }
+        postEdge(homeInterrupt.getFallingTimestamp(), endsHoming);
+        homing = false;
+    }
+
+    /**
+     * @param timestamp  FPGA time of the edge
+     * @param endsHoming true if the edge ended a homing run
+     * @return void
+     */
+    private synchronized void postEdge(double timestamp, boolean endsHoming) {
+        // A bounce can't undo a homing run that periodic() hasn't applied yet
+        boolean waitingHoming = pendingEdge != null && pendingEdge.endsHoming();
+        pendingEdge = new HomeEdge(timestamp, endsHoming || waitingHoming);
+    }
+
+    /**
+     * @return the edge waiting to be applied, or null if there is none
+     */
+    private synchronized HomeEdge takeEdge() {
+        HomeEdge edge = pendingEdge;
+        pendingEdge = null;
+        return edge;
+    }
+
+    /**
+     * Zeros the encoder so it reads min_target at the given time. The encoder value
+     * is the latest CAN sample, so any travel since the edge is estimated from the
+     * velocity and kept. Only the end of a homing run sets a new goal; passing over
+     * the switch during a move only corrects the encoder and keeps the move's goal.
+     *
+     * @param timestamp  FPGA time the elevator was at home
+     * @param endsHoming true to hold the elevator at home afterwards
+     * @return void
+     */
+    private void zeroAt(double timestamp, boolean endsHoming) {
+        double sinceEdge = Math.max(0.0, Timer.getFPGATimestamp() - timestamp);
+        double travelled = sensors.getElevatorVelocity() * sinceEdge;
+
+        encoder.setPosition(min_target + travelled);
+        if (endsHoming) {
+            setpoint = new TrapezoidProfile.State(min_target, 0.0);
+            goal     = new TrapezoidProfile.State(min_target, 0.0);
+        }
+        // Re-solve from the corrected position
+        needsSolve     = true;
+        homedTimestamp = timestamp;
+        homed          = true;
+    }
+
+    /**
+     * Turns the reverse soft limit on or off without touching other settings.
+     * Called from commands on the robot thread, so it doesn't wait for the
+     * SparkMax to acknowledge the change.
+     *
+     * @param enabled true to enforce the limit
+     * @return void
+     */
+    private void setReverseSoftLimit(boolean enabled) {
+        SparkMaxConfig config = new SparkMaxConfig();
+        config.softLimit.reverseSoftLimitEnabled(enabled);
+        rightElevatorMotor.configureAsync(config, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+    }
+
 }
@@ -9,9 +9,13 @@ import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
 import com.revrobotics.spark.config.SparkMaxConfig;
 
 import edu.wpi.first.epilogue.Logged;
+import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.commands.manipulator.AlgaeIntakeCommand;
 import frc.robot.commands.manipulator.CoralIntakeCommand;
+import frc.robot.helpers.GamePieceSensor;
+import frc.robot.helpers.ParallelInit;
+import frc.robot.helpers.SparkStatusBudget;
 
 /**
  *
@@ -19,18 +23,28 @@ import frc.robot.commands.manipulator.CoralIntakeCommand;
 @Logged
 public class ManipulatorSubsystem extends ObotSubsystemBase {
 
-    private SparkMax     coralMotor;
+    // How often the game piece sensors are checked for a new reading
+    private static final double kSensorPeriod   = 0.005;
 
-    private SparkMax     algaeMotor;
+    private SparkMax            coralMotor;
 
-    private TimeOfFlight haveAlgaeSensor = new TimeOfFlight(102);
+    private SparkMax            algaeMotor;
+
+    private TimeOfFlight        haveAlgaeSensor = new TimeOfFlight(102);
 
     // private DigitalInput haveCoralSensor;
-    private TimeOfFlight haveCoralSensor = new TimeOfFlight(101);
+    private TimeOfFlight        haveCoralSensor = new TimeOfFlight(101);
+
+    // A reading at or above these ranges (mm) means the piece is present
+    private GamePieceSensor     algaeDetector   = new GamePieceSensor(haveAlgaeSensor, 100.0, 10.0);
+
+    private GamePieceSensor     coralDetector   = new GamePieceSensor(haveCoralSensor, 90.0, 10.0);
 
-    private boolean      hasAlgae;
+    private final Notifier      sensorNotifier  = new Notifier(this::sampleSensors);
 
-    private boolean      hasCoral;
+    private double              algaeSpeed;
+
+    private double              coralSpeed;
 
     /**
     *
@@ -41,32 +55,44 @@ public class ManipulatorSubsystem extends ObotSubsystemBase {
 
         coralMotor = new SparkMax(54, MotorType.kBrushless);
         coralConfig.inverted(false).voltageCompensation(12.0).idleMode(IdleMode.kBrake);
-        coralMotor.configure(coralConfig, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+        // Nothing is read back from the manipulator motors
+        new SparkStatusBudget("Coral").apply(coralConfig);
+        ParallelInit.configure("ManipulatorCoral", coralMotor, coralConfig,
+                ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
 
         algaeMotor = new SparkMax(55, MotorType.kBrushless);
         algaeConfig.inverted(false).voltageCompensation(12.0).idleMode(IdleMode.kBrake);
-        algaeMotor.configure(algaeConfig, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+        new SparkStatusBudget("Algae").apply(algaeConfig);
+        ParallelInit.configure("ManipulatorAlgae", algaeMotor, algaeConfig,
+                ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
 
         addChild("HaveAlgaeSensor", haveAlgaeSensor);
 
         addChild("HaveCoralSensor", haveCoralSensor);
 
+        // Stop the intake the moment a piece seats (or leaves when ejecting) rather
+        // than waiting for the command to notice on the next scheduler run
+        coralDetector.onAcquired(() -> stopCoral(true));
+        coralDetector.onReleased(() -> stopCoral(false));
+        algaeDetector.onAcquired(() -> stopAlgae(true));
+
+        sensorNotifier.setName("ManipulatorSensors");
+        sensorNotifier.startPeriodic(kSensorPeriod);
+    }
+
+    @Override
+    void captureSensors(SensorSnapshot snapshot) {
+        snapshot.setManipulator(coralDetector.getRange(), coralDetector.hasPiece(), algaeDetector.getRange(),
+                algaeDetector.hasPiece());
     }
 
     @Override
     public void periodic() {
-        // set the value of has Algae
-        hasAlgae = 100 <= haveAlgaeSensor.getRange();
-        hasCoral = 90 <= haveCoralSensor.getRange();
-        // set based on a thresh hold of X
-        // if above X will set to true
-        // if below X will set to false
-
-        // This method will be called once per scheduler run
-        putDashboardNumber("coralSense", haveCoralSensor.getRange());
-        putDashboardNumber("algaeSense", haveAlgaeSensor.getRange());
-        putDashboardBoolean("hasAlgae", hasAlgae);
-        putDashboardBoolean("hasCoral", hasCoral);
+        // Detection itself runs on sensorNotifier, this only publishes the results
+        putDashboardNumber("coralSense", sensors.getCoralRange());
+        putDashboardNumber("algaeSense", sensors.getAlgaeRange());
+        putDashboardBoolean("hasAlgae", haveAlgae());
+        putDashboardBoolean("hasCoral", haveCoral());
     }
 
     @Override
@@ -78,27 +104,63 @@ public class ManipulatorSubsystem extends ObotSubsystemBase {
     // Put methods for controlling this subsystem
     // here. Call these from Commands.
 
-    public void setAlgae(double new_speed) {
+    public synchronized void setAlgae(double new_speed) {
+        algaeSpeed = new_speed;
         algaeMotor.set(new_speed);
     }
 
     public boolean haveAlgae() {
-        return false;
+        return sensors.hasAlgae();
     }
 
     public Command algaeIntakeCommand(boolean new_intake) {
         return new AlgaeIntakeCommand(this, new_intake);
     }
 
-    public void setCoral(double new_speed) {
+    public synchronized void setCoral(double new_speed) {
+        coralSpeed = new_speed;
         coralMotor.set(new_speed);
     }
 
     public boolean haveCoral() {
-        return false;
+        return sensors.hasCoral();
     }
 
     public Command coralIntakeCommand(boolean new_intake) {
         return new CoralIntakeCommand(this, new_intake);
     }
+
+    /**
+     * Samples both game piece sensors, called from sensorNotifier
+     *
+     * @return void
+     */
+    private void sampleSensors() {
+        coralDetector.sample();
+        algaeDetector.sample();
+    }
+
+    /**
+     * Stops the coral motor if it is running in the given direction
+     *
+     * @param intaking true to stop an intake, false to stop an outtake
+     * @return void
+     */
+    private synchronized void stopCoral(boolean intaking) {
+        if (intaking ? coralSpeed > 0.0 : coralSpeed < 0.0) {
+            setCoral(0.0);
+        }
+    }
+
+    /**
+     * Stops the algae motor if it is running in the given direction
+     *
+     * @param intaking true to stop an intake, false to stop an outtake
+     * @return void
+     */
+    private synchronized void stopAlgae(boolean intaking) {
+        if (intaking ? algaeSpeed > 0.0 : algaeSpeed < 0.0) {
+            setAlgae(0.0);
+        }
+    }
 }
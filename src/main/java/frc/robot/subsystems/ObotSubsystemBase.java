@@ -7,15 +7,28 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
 @Logged
 abstract class ObotSubsystemBase extends SubsystemBase {
-    protected String  className;
+    protected String               className;
 
     // TODO: set false for competitions
-    protected boolean verbosity    = true;
+    protected boolean              verbosity    = true;
 
-    protected boolean isSimulation = !RobotBase.isReal();
+    protected boolean              isSimulation = !RobotBase.isReal();
+
+    protected final SensorSnapshot sensors      = SensorSnapshot.getInstance();
 
     protected ObotSubsystemBase() {
         this.className = this.getClass().getSimpleName();
+        sensors.register(this);
+    }
+
+    /**
+     * Reads this subsystem's sensors into the snapshot. Called once per loop,
+     * before any periodic() or command runs, so don't do anything else here.
+     *
+     * @param snapshot to fill in
+     * @return void
+     */
+    void captureSensors(SensorSnapshot snapshot) {
     }
 
     protected void logVerbose(String message) {
@@ -0,0 +1,211 @@
+package frc.robot.subsystems;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Every sensor the robot reads, captured in one batch at the start of the loop
+ * and stamped with a single FPGA timestamp. Subsystems and commands should use
+ * these values instead of reading hardware themselves so all the control math
+ * in a loop works from the same instant.
+ * <p>
+ * Values are only written by the subsystems (through the package-private
+ * setters) while {@link #capture()} runs, everyone else gets read-only getters.
+ */
+public class SensorSnapshot {
+    public static final int               kModuleCount   = 4;
+
+    private static final SensorSnapshot   instance       = new SensorSnapshot();
+
+    private final List<ObotSubsystemBase> sources        = new ArrayList<>();
+
+    private double                        timestamp;
+
+    private double                        gyroYaw;
+
+    private Pose2d                        pose           = new Pose2d();
+
+    private final double[]                moduleDistance = new double[kModuleCount];
+
+    private final double[]                moduleAngle    = new double[kModuleCount];
+
+    private double                        elevatorPosition;
+
+    private double                        elevatorVelocity;
+
+    private boolean                       elevatorHomeSwitch;
+
+    private double                        shoulderPosition;
+
+    private double                        shoulderVelocity;
+
+    private double                        coralRange;
+
+    private double                        algaeRange;
+
+    private boolean                       hasCoral;
+
+    private boolean                       hasAlgae;
+
+    public static SensorSnapshot getInstance() {
+        return instance;
+    }
+
+    private SensorSnapshot() {
+    }
+
+    /**
+     * Adds a subsystem to be asked for its sensors on every capture
+     *
+     * @param source subsystem to add
+     * @return void
+     */
+    void register(ObotSubsystemBase source) {
+        sources.add(source);
+    }
+
+    /**
+     * Reads every registered subsystem's sensors. Called by Robot before the
+     * CommandScheduler runs.
+     *
+     * @return void
+     */
+    public void capture() {
+        timestamp = Timer.getFPGATimestamp();
+        for (ObotSubsystemBase source : sources) {
+            source.captureSensors(this);
+        }
+    }
+
+    /**
+     * Returns the FPGA time the snapshot was taken
+     *
+     * @return timestamp in seconds
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return gyro yaw in radians
+     */
+    public double getGyroYawRadians() {
+        return gyroYaw;
+    }
+
+    /**
+     * @return gyro yaw as a Rotation2d
+     */
+    public Rotation2d getGyroYaw() {
+        return new Rotation2d(gyroYaw);
+    }
+
+    /**
+     * @return odometry pose after this loop's module and gyro readings
+     */
+    public Pose2d getPose() {
+        return pose;
+    }
+
+    /**
+     * @param module index, in swervedrive.json order
+     * @return distance driven by the module in meters
+     */
+    public double getModuleDistance(int module) {
+        return moduleDistance[module];
+    }
+
+    /**
+     * @param module index, in swervedrive.json order
+     * @return module angle in radians
+     */
+    public double getModuleAngle(int module) {
+        return moduleAngle[module];
+    }
+
+    /**
+     * @return elevator position in motor rotations
+     */
+    public double getElevatorPosition() {
+        return elevatorPosition;
+    }
+
+    /**
+     * @return elevator velocity in motor rotations per second
+     */
+    public double getElevatorVelocity() {
+        return elevatorVelocity;
+    }
+
+    public boolean getElevatorHomeSwitch() {
+        return elevatorHomeSwitch;
+    }
+
+    /**
+     * @return shoulder angle in radians
+     */
+    public double getShoulderPosition() {
+        return shoulderPosition;
+    }
+
+    /**
+     * @return shoulder velocity in radians per second
+     */
+    public double getShoulderVelocity() {
+        return shoulderVelocity;
+    }
+
+    /**
+     * @return filtered coral sensor range in mm
+     */
+    public double getCoralRange() {
+        return coralRange;
+    }
+
+    /**
+     * @return filtered algae sensor range in mm
+     */
+    public double getAlgaeRange() {
+        return algaeRange;
+    }
+
+    public boolean hasCoral() {
+        return hasCoral;
+    }
+
+    public boolean hasAlgae() {
+        return hasAlgae;
+    }
+
+    void setDrive(double new_gyroYaw, Pose2d new_pose) {
+        gyroYaw = new_gyroYaw;
+        pose    = new_pose;
+    }
+
+    void setModule(int module, double distance, double angle) {
+        moduleDistance[module] = distance;
+        moduleAngle[module]    = angle;
+    }
+
+    void setElevator(double position, double velocity, boolean homeSwitch) {
+        elevatorPosition   = position;
+        elevatorVelocity   = velocity;
+        elevatorHomeSwitch = homeSwitch;
+    }
+
+    void setShoulder(double position, double velocity) {
+        shoulderPosition = position;
+        shoulderVelocity = velocity;
+    }
+
+    void setManipulator(double new_coralRange, boolean new_hasCoral, double new_algaeRange, boolean new_hasAlgae) {
+        coralRange = new_coralRange;
+        hasCoral   = new_hasCoral;
+        algaeRange = new_algaeRange;
+        hasAlgae   = new_hasAlgae;
+    }
+}
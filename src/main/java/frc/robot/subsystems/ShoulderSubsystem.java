@@ -10,6 +10,7 @@ import com.revrobotics.spark.config.SparkMaxConfig;
 
 import edu.wpi.first.epilogue.Logged;
 import edu.wpi.first.math.controller.ArmFeedforward;
+import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.units.Units;
 import edu.wpi.first.units.measure.Voltage;
@@ -19,6 +20,10 @@ import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Config;
 import frc.robot.commands.manipulator.ShoulderCommand;
+import frc.robot.helpers.ParallelInit;
+import frc.robot.helpers.SegmentedProfile;
+import frc.robot.helpers.SparkStatusBudget;
+import frc.robot.helpers.SparkStatusBudget.Signal;
 
 /**
  *
@@ -36,13 +41,22 @@ public class ShoulderSubsystem extends ObotSubsystemBase {
 
     private SparkAbsoluteEncoder   absEncoder;
 
-    // TODO: max speed/accel?
-    private final TrapezoidProfile profile     = new TrapezoidProfile(new TrapezoidProfile.Constraints(5.0, 0.75));
-
     private TrapezoidProfile.State goal        = new TrapezoidProfile.State();
 
     private TrapezoidProfile.State setpoint    = new TrapezoidProfile.State(Math.toRadians(-90.0), 0.0);
 
+    // Solved once per target and played back by time. TODO: max speed/accel?
+    private final SegmentedProfile segments    = new SegmentedProfile(5.0, 0.75);
+
+    private boolean                needsSolve  = true;
+
+    private double                 profileStart;
+
+    // Corrects tracking error against the precomputed profile, the feedforward
+    // does the rest. Starts at 6 V per radian behind, so about 10 degrees adds
+    // kS; raise kP until it tracks and add kD if it rings.
+    private final PIDController    trackingPID = new PIDController(6.0, 0.0, 0.0);
+
     // kS, kG, kV, kA
     // TODO: do we need these for loaded intakes?
     ArmFeedforward                 feedforward = new ArmFeedforward(1.0, 1.0, 1.0, 1.0);
@@ -55,7 +69,9 @@ public class ShoulderSubsystem extends ObotSubsystemBase {
 
         shoulderMotor = new SparkMax(1, MotorType.kBrushless);
         config.inverted(false).voltageCompensation(12.0).idleMode(IdleMode.kBrake);
-        config.absoluteEncoder.inverted(false).positionConversionFactor(Math.PI).velocityConversionFactor(Math.PI)
+        // The SparkMax reports velocity per minute, the profiles and the snapshot work per second
+        config.absoluteEncoder.inverted(false).positionConversionFactor(Math.PI)
+                .velocityConversionFactor(Math.PI / 60.0)
                 .zeroCentered(true) // center output range: -0.5 to 0.5 rather than 0.0 to 1.0
                 .zeroOffset(0.0) // TODO: Calibrate this offset should be straight down?
                 .setSparkMaxDataPortConfig(); // Apparently required... Whats it do? Nobody knows.
@@ -68,16 +84,24 @@ public class ShoulderSubsystem extends ObotSubsystemBase {
         // .iZone( 0.01 )
         // .feedbackSensor( ClosedLoopConfig.FeedbackSensor.kAbsoluteEncoder );
 
-        shoulderMotor.configure(config, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+        // periodic() reads the absolute encoder, SysId logging reads voltage and output
+        new SparkStatusBudget("Shoulder").use(Signal.ABSOLUTE_ENCODER_POSITION, 20)
+                .use(Signal.ABSOLUTE_ENCODER_VELOCITY, 20).use(Signal.BUS_VOLTAGE, 20)
+                .use(Signal.APPLIED_OUTPUT, 20).apply(config);
+
+        ParallelInit.configure("Shoulder", shoulderMotor, config,
+                ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
         absEncoder = shoulderMotor.getAbsoluteEncoder();
     }
 
     @Override
-    public void periodic() {
-        setpoint = new TrapezoidProfile.State(absEncoder.getPosition(), absEncoder.getVelocity());
-        setpoint = profile.calculate(kDt, setpoint, goal);
+    void captureSensors(SensorSnapshot snapshot) {
+        snapshot.setShoulder(absEncoder.getPosition(), absEncoder.getVelocity());
+    }
 
-        shoulderMotor.setVoltage(feedforward.calculate(setpoint.position, setpoint.velocity));
+    @Override
+    public void periodic() {
+        followPrecomputedProfile();
 
         putDashboardNumberVerbose("manipulator/shoulder", Math.toDegrees(setpoint.position));
     }
@@ -99,7 +123,8 @@ public class ShoulderSubsystem extends ObotSubsystemBase {
         } else if (radians < min_target) {
             radians = min_target;
         }
-        goal = new TrapezoidProfile.State(radians, 0.0);
+        goal       = new TrapezoidProfile.State(radians, 0.0);
+        needsSolve = true;
     }
 
     /**
@@ -156,6 +181,31 @@ public class ShoulderSubsystem extends ObotSubsystemBase {
                 .andThen(routine.dynamic(SysIdRoutine.Direction.kReverse).withTimeout(dynamicTimeout));
     }
 
+    /**
+     * Plays back the profile solved for the current goal, solving it first if the
+     * goal changed. Feedforward comes from the profile and the PID only works on
+     * the difference between the profile and the encoder.
+     *
+     * @return void
+     */
+    private void followPrecomputedProfile() {
+        if (needsSolve) {
+            segments.solve(sensors.getShoulderPosition(), sensors.getShoulderVelocity(), goal.position,
+                    goal.velocity);
+            profileStart = sensors.getTimestamp();
+            trackingPID.reset();
+            needsSolve = false;
+        }
+
+        double t = sensors.getTimestamp() - profileStart;
+        setpoint.position = segments.position(t);
+        setpoint.velocity = segments.velocity(t);
+
+        double volts = feedforward.calculateWithVelocities(setpoint.position, setpoint.velocity,
+                segments.velocity(t + kDt)) + trackingPID.calculate(sensors.getShoulderPosition(), setpoint.position);
+        shoulderMotor.setVoltage(volts);
+    }
+
     /**
      * Sets motor voltages
      *
@@ -0,0 +1,17 @@
+package frc.robot.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a config class for {@link ConfigBindingProcessor}, which generates a
+ * JSON reader and NetworkTables publishers for it at compile time. The class
+ * needs a no argument constructor and public fields of type double, int,
+ * boolean, String or another class marked with this annotation.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface ConfigBinding {
+}
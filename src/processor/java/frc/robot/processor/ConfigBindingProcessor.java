@@ -0,0 +1,379 @@
+package frc.robot.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates straight line code for every {@link ConfigBinding} class, so
+ * ConfigurationLoader doesn't need Jackson databind or reflection:
+ * <ul>
+ * <li>{@code <Config>Binding.read(JsonParser)} reads the class from a JSON
+ * object with Jackson's streaming parser</li>
+ * <li>{@code new <Config>Binding(NetworkTable)} creates a publisher for each
+ * field once, and {@code publish(config)} sets them</li>
+ * <li>{@code <Config>Binding.write(config, DataOutputStream)} and
+ * {@code read(ByteBuffer)} store the class in StartupCache's binary file, fields
+ * in declaration order</li>
+ * <li>{@code ConfigBindings} in each package picks the binding for a class</li>
+ * </ul>
+ * Runs alongside the Epilogue processor, see the processor source set in
+ * build.gradle.
+ */
+@SupportedAnnotationTypes("frc.robot.processor.ConfigBinding")
+public class ConfigBindingProcessor extends AbstractProcessor {
+    private enum Kind {
+        DOUBLE, INT, BOOLEAN, STRING, NESTED
+    }
+
+    private record Field(String name, Kind kind, String nestedType) {
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<String, List<TypeElement>> packages = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(ConfigBinding.class)) {
+            TypeElement type = (TypeElement) element;
+            if (type.getKind() != ElementKind.CLASS || type.getNestingKind() != NestingKind.TOP_LEVEL) {
+                error(type, "@ConfigBinding only works on top level classes");
+                continue;
+            }
+            List<Field> fields = getFields(type);
+            if (fields == null) {
+                continue;
+            }
+            String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+            packages.computeIfAbsent(packageName, name -> new ArrayList<>()).add(type);
+            write(packageName, type.getSimpleName() + "Binding", generateBinding(packageName, type, fields), type);
+        }
+        for (var entry : packages.entrySet()) {
+            write(entry.getKey(), "ConfigBindings", generateIndex(entry.getKey(), entry.getValue()),
+                    entry.getValue().toArray(new Element[0]));
+        }
+        return true;
+    }
+
+    /**
+     * Collects the public instance fields of a config class
+     *
+     * @param type config class
+     * @return its fields, or null if one has a type we can't bind
+     */
+    private List<Field> getFields(TypeElement type) {
+        Elements    elements = processingEnv.getElementUtils();
+        List<Field> fields   = new ArrayList<>();
+        boolean     valid    = true;
+        for (Element member : type.getEnclosedElements()) {
+            Set<Modifier> modifiers = member.getModifiers();
+            if (member.getKind() != ElementKind.FIELD || !modifiers.contains(Modifier.PUBLIC)
+                    || modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+                continue;
+            }
+            VariableElement field    = (VariableElement) member;
+            String          name     = field.getSimpleName().toString();
+            TypeMirror      typeOf   = field.asType();
+            String          typeName = typeOf.toString();
+            switch (typeOf.getKind()) {
+                case DOUBLE:
+                    fields.add(new Field(name, Kind.DOUBLE, null));
+                    break;
+                case INT:
+                    fields.add(new Field(name, Kind.INT, null));
+                    break;
+                case BOOLEAN:
+                    fields.add(new Field(name, Kind.BOOLEAN, null));
+                    break;
+                case DECLARED:
+                    Element fieldType = ((DeclaredType) typeOf).asElement();
+                    if (typeName.equals("java.lang.String")) {
+                        fields.add(new Field(name, Kind.STRING, null));
+                    } else if (fieldType.getAnnotation(ConfigBinding.class) != null) {
+                        // Same package as the config, the simple name is enough
+                        boolean samePackage = elements.getPackageOf(fieldType).equals(elements.getPackageOf(type));
+                        fields.add(new Field(name, Kind.NESTED,
+                                samePackage ? fieldType.getSimpleName().toString() : typeName));
+                    } else {
+                        error(field, typeName + " isn't a @ConfigBinding class");
+                        valid = false;
+                    }
+                    break;
+                default:
+                    error(field, "Can't bind a field of type " + typeName);
+                    valid = false;
+                    break;
+            }
+        }
+        return valid ? fields : null;
+    }
+
+    private String generateBinding(String packageName, TypeElement type, List<Field> fields) {
+        String        config  = type.getSimpleName().toString();
+        StringBuilder out     = new StringBuilder();
+        boolean       strings = fields.stream().anyMatch(field -> field.kind() == Kind.STRING);
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("import java.io.DataOutputStream;\n");
+        out.append("import java.io.IOException;\n");
+        out.append("import java.nio.ByteBuffer;\n");
+        if (strings) {
+            out.append("import java.nio.charset.StandardCharsets;\n");
+        }
+        out.append("\nimport com.fasterxml.jackson.core.JsonParser;\n");
+        out.append("import com.fasterxml.jackson.core.JsonToken;\n\n");
+        out.append("import edu.wpi.first.networktables.NetworkTable;\n\n");
+        out.append("/**\n * Reads and publishes {@link ").append(config)
+                .append("}, generated by ConfigBindingProcessor\n */\n");
+        out.append("public final class ").append(config).append("Binding {\n");
+
+        // Publishers, created once
+        for (Field field : fields) {
+            out.append("    private final ").append(publisherType(field)).append(' ').append(field.name())
+                    .append(";\n\n");
+        }
+        out.append("    public ").append(config).append("Binding(NetworkTable table) {\n");
+        for (Field field : fields) {
+            out.append("        ").append(field.name()).append(" = ");
+            switch (field.kind()) {
+                case DOUBLE, INT -> out.append("table.getDoubleTopic(\"").append(field.name())
+                        .append("\").publish();\n");
+                case BOOLEAN -> out.append("table.getBooleanTopic(\"").append(field.name()).append("\").publish();\n");
+                case STRING -> out.append("table.getStringTopic(\"").append(field.name()).append("\").publish();\n");
+                case NESTED -> out.append("new ").append(publisherType(field)).append("(table.getSubTable(\"")
+                        .append(field.name()).append("\"));\n");
+            }
+        }
+        out.append("    }\n\n");
+
+        out.append("    public void publish(").append(config).append(" config) {\n");
+        for (Field field : fields) {
+            switch (field.kind()) {
+                case DOUBLE, INT, BOOLEAN -> out.append("        ").append(field.name()).append(".set(config.")
+                        .append(field.name()).append(");\n");
+                case STRING -> out.append("        if (config.").append(field.name()).append(" != null) {\n")
+                        .append("            ").append(field.name()).append(".set(config.").append(field.name())
+                        .append(");\n        }\n");
+                case NESTED -> out.append("        if (config.").append(field.name()).append(" != null) {\n")
+                        .append("            ").append(field.name()).append(".publish(config.")
+                        .append(field.name()).append(");\n        }\n");
+            }
+        }
+        out.append("    }\n\n");
+
+        // Reader, the parser is on the object's START_OBJECT
+        out.append("    public static ").append(config).append(" read(JsonParser parser) throws IOException {\n");
+        out.append("        if (parser.currentToken() != JsonToken.START_OBJECT) {\n");
+        out.append("            throw new IOException(\"Expected an object for ").append(config)
+                .append(" at \" + parser.currentLocation());\n");
+        out.append("        }\n");
+        out.append("        ").append(config).append(" config = new ").append(config).append("();\n");
+        out.append("        while (parser.nextToken() == JsonToken.FIELD_NAME) {\n");
+        out.append("            String name = parser.currentName();\n");
+        out.append("            parser.nextToken();\n");
+        out.append("            switch (name) {\n");
+        for (Field field : fields) {
+            out.append("                case \"").append(field.name()).append("\" -> config.").append(field.name())
+                    .append(" = ");
+            switch (field.kind()) {
+                case DOUBLE -> out.append("parser.getValueAsDouble();\n");
+                case INT -> out.append("parser.getValueAsInt();\n");
+                case BOOLEAN -> out.append("parser.getValueAsBoolean();\n");
+                case STRING -> out.append("parser.getValueAsString();\n");
+                case NESTED -> out.append("parser.currentToken() == JsonToken.VALUE_NULL ? null : ")
+                        .append(field.nestedType()).append("Binding.read(parser);\n");
+            }
+        }
+        out.append("                default -> throw new IOException(\"Unknown field \" + name + \" in ").append(config)
+                .append(" at \" + parser.currentLocation());\n");
+        out.append("            }\n");
+        out.append("        }\n");
+        out.append("        return config;\n");
+        out.append("    }\n\n");
+
+        // Binary writer and reader for StartupCache, nulls are a presence byte
+        out.append("    public static void write(").append(config)
+                .append(" config, DataOutputStream out) throws IOException {\n");
+        for (Field field : fields) {
+            switch (field.kind()) {
+                case DOUBLE -> out.append("        out.writeDouble(config.").append(field.name()).append(");\n");
+                case INT -> out.append("        out.writeInt(config.").append(field.name()).append(");\n");
+                case BOOLEAN -> out.append("        out.writeBoolean(config.").append(field.name()).append(");\n");
+                case STRING -> out.append("        writeString(out, config.").append(field.name()).append(");\n");
+                case NESTED -> out.append("        out.writeBoolean(config.").append(field.name())
+                        .append(" != null);\n        if (config.").append(field.name()).append(" != null) {\n")
+                        .append("            ").append(field.nestedType()).append("Binding.write(config.")
+                        .append(field.name()).append(", out);\n        }\n");
+            }
+        }
+        out.append("    }\n\n");
+
+        out.append("    public static ").append(config).append(" read(ByteBuffer in) {\n");
+        out.append("        ").append(config).append(" config = new ").append(config).append("();\n");
+        for (Field field : fields) {
+            out.append("        config.").append(field.name()).append(" = ");
+            switch (field.kind()) {
+                case DOUBLE -> out.append("in.getDouble();\n");
+                case INT -> out.append("in.getInt();\n");
+                case BOOLEAN -> out.append("in.get() != 0;\n");
+                case STRING -> out.append("readString(in);\n");
+                case NESTED -> out.append("in.get() == 0 ? null : ").append(field.nestedType())
+                        .append("Binding.read(in);\n");
+            }
+        }
+        out.append("        return config;\n");
+        out.append("    }\n");
+
+        if (strings) {
+            out.append("\n    private static void writeString(DataOutputStream out, String value) ")
+                    .append("throws IOException {\n");
+            out.append("        out.writeBoolean(value != null);\n");
+            out.append("        if (value != null) {\n");
+            out.append("            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);\n");
+            out.append("            out.writeInt(bytes.length);\n");
+            out.append("            out.write(bytes);\n");
+            out.append("        }\n");
+            out.append("    }\n\n");
+            out.append("    private static String readString(ByteBuffer in) {\n");
+            out.append("        if (in.get() == 0) {\n");
+            out.append("            return null;\n");
+            out.append("        }\n");
+            out.append("        byte[] bytes = new byte[in.getInt()];\n");
+            out.append("        in.get(bytes);\n");
+            out.append("        return new String(bytes, StandardCharsets.UTF_8);\n");
+            out.append("    }\n");
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private String generateIndex(String packageName, List<TypeElement> types) {
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("import java.io.DataOutputStream;\n");
+        out.append("import java.io.IOException;\n");
+        out.append("import java.nio.ByteBuffer;\n\n");
+        out.append("import com.fasterxml.jackson.core.JsonParser;\n\n");
+        out.append("import edu.wpi.first.networktables.NetworkTableInstance;\n\n");
+        out.append("/**\n * Every generated config binding in this package, generated by ")
+                .append("ConfigBindingProcessor\n */\n");
+        out.append("public final class ConfigBindings {\n");
+        for (TypeElement type : types) {
+            out.append("    private static ").append(type.getSimpleName()).append("Binding ")
+                    .append(fieldName(type)).append(";\n\n");
+        }
+        out.append("    private ConfigBindings() {\n    }\n\n");
+
+        out.append("    /**\n     * @return the config read from the parser, or null if the class has no ")
+                .append("binding\n     */\n");
+        out.append("    @SuppressWarnings(\"unchecked\")\n");
+        out.append("    public static <TConfig> TConfig read(Class<TConfig> classOfT, JsonParser parser) ")
+                .append("throws IOException {\n");
+        for (TypeElement type : types) {
+            out.append("        if (classOfT == ").append(type.getSimpleName()).append(".class) {\n");
+            out.append("            return (TConfig) ").append(type.getSimpleName()).append("Binding.read(parser);\n");
+            out.append("        }\n");
+        }
+        out.append("        return null;\n    }\n\n");
+
+        out.append("    /**\n     * @return true if the class has a binding\n     */\n");
+        out.append("    public static boolean hasBinding(Class<?> classOfT) {\n");
+        out.append("        return ");
+        for (int i = 0; i < types.size(); i++) {
+            out.append(i == 0 ? "" : "\n                || ").append("classOfT == ")
+                    .append(types.get(i).getSimpleName()).append(".class");
+        }
+        out.append(";\n    }\n\n");
+
+        out.append("    /**\n     * @return the config read from StartupCache's binary form, or null if the ")
+                .append("class has no\n     *         binding\n     */\n");
+        out.append("    @SuppressWarnings(\"unchecked\")\n");
+        out.append("    public static <TConfig> TConfig read(Class<TConfig> classOfT, ByteBuffer in) {\n");
+        for (TypeElement type : types) {
+            out.append("        if (classOfT == ").append(type.getSimpleName()).append(".class) {\n");
+            out.append("            return (TConfig) ").append(type.getSimpleName()).append("Binding.read(in);\n");
+            out.append("        }\n");
+        }
+        out.append("        return null;\n    }\n\n");
+
+        out.append("    /**\n     * Writes a config in StartupCache's binary form\n     */\n");
+        out.append("    public static void write(Object config, DataOutputStream out) throws IOException {\n");
+        for (TypeElement type : types) {
+            out.append("        if (config instanceof ").append(type.getSimpleName()).append(") {\n");
+            out.append("            ").append(type.getSimpleName()).append("Binding.write((")
+                    .append(type.getSimpleName()).append(") config, out);\n");
+            out.append("            return;\n");
+            out.append("        }\n");
+        }
+        out.append("        throw new IllegalArgumentException(\"No binding for \" + config.getClass());\n    }\n\n");
+
+        out.append("    /**\n     * Publishes a config under SmartDashboard/<class name>\n     *\n");
+        out.append("     * @return false if the class has no binding\n     */\n");
+        out.append("    public static synchronized boolean publish(Object config) {\n");
+        for (TypeElement type : types) {
+            String name = fieldName(type);
+            out.append("        if (config instanceof ").append(type.getSimpleName()).append(") {\n");
+            out.append("            if (").append(name).append(" == null) {\n");
+            out.append("                ").append(name).append(" = new ").append(type.getSimpleName())
+                    .append("Binding(NetworkTableInstance.getDefault().getTable(\"SmartDashboard\")\n")
+                    .append("                        .getSubTable(\"").append(type.getSimpleName()).append("\"));\n");
+            out.append("            }\n");
+            out.append("            ").append(name).append(".publish((").append(type.getSimpleName())
+                    .append(") config);\n");
+            out.append("            return true;\n");
+            out.append("        }\n");
+        }
+        out.append("        return false;\n    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private static String publisherType(Field field) {
+        return switch (field.kind()) {
+            case DOUBLE, INT -> "edu.wpi.first.networktables.DoublePublisher";
+            case BOOLEAN -> "edu.wpi.first.networktables.BooleanPublisher";
+            case STRING -> "edu.wpi.first.networktables.StringPublisher";
+            case NESTED -> field.nestedType() + "Binding";
+        };
+    }
+
+    private static String fieldName(TypeElement type) {
+        String name = type.getSimpleName().toString();
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private void write(String packageName, String className, String source, Element... originatingElements) {
+        try (Writer writer = processingEnv.getFiler()
+                .createSourceFile(packageName + "." + className, originatingElements).openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + className + ": " + e.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
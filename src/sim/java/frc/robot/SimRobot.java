@@ -0,0 +1,80 @@
+package frc.robot;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.config.ConfigBundle;
+
+/**
+ * Boots RobotContainer against the simulated hardware, enabled in teleop on
+ * the blue alliance, and runs robot loops without Robot or its thread. Used by
+ * the benchmarks and checks that need the whole robot. Sim time is paused and
+ * only moves when {@link #step()} is called.
+ */
+public class SimRobot {
+    public static final double kLoopPeriod = 0.02;
+
+    private SimRobot() {
+    }
+
+    /**
+     * @return the robot's container, with every subsystem built
+     */
+    public static RobotContainer boot() {
+        if (!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL");
+        }
+        SimHooks.pauseTiming();
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+        DriverStationSim.setJoystickAxisCount(0, 6);
+        DriverStationSim.setJoystickButtonCount(0, 12);
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+
+        ConfigBundle.start();
+        RobotContainer container = RobotContainer.getInstance();
+        container.opmodeInit(Alliance.Blue);
+        return container;
+    }
+
+    /**
+     * Moves sim time forward one loop
+     *
+     * @return void
+     */
+    public static void step() {
+        SimHooks.stepTiming(kLoopPeriod);
+    }
+
+    /**
+     * One robot loop, what TimedRobot does around Robot.robotPeriodic()
+     *
+     * @return void
+     */
+    public static void loop() {
+        DriverStation.refreshData();
+        Robot.runLoop();
+        SmartDashboard.updateValues();
+    }
+
+    /**
+     * Sets the driver's sticks, read by the next loop
+     *
+     * @param forward axis 1
+     * @param strafe  axis 0
+     * @param rotate  axis 4
+     * @return void
+     */
+    public static void setSticks(double forward, double strafe, double rotate) {
+        DriverStationSim.setJoystickAxis(0, 1, forward);
+        DriverStationSim.setJoystickAxis(0, 0, strafe);
+        DriverStationSim.setJoystickAxis(0, 4, rotate);
+        DriverStationSim.notifyNewData();
+    }
+}
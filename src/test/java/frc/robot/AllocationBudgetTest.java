@@ -0,0 +1,267 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.commands.drivebase.StopCommand;
+import frc.robot.helpers.CompiledTrajectories;
+import frc.robot.helpers.LimelightDevice;
+import frc.robot.helpers.LimelightHelpers;
+import frc.robot.helpers.LimelightRecording;
+import frc.robot.helpers.ParallelInit;
+import frc.robot.subsystems.SensorSnapshot;
+import frc.robot.subsystems.ShoulderSubsystem;
+
+/**
+ * Checks the bytes each periodic hot path allocates per call against its
+ * budget in src/test/resources/allocation-budgets.properties, one test per
+ * path. Covers the periodic() of every subsystem, execute() of the drive
+ * base commands, and the Limelight decoding. Paths that don't allocate have a
+ * budget of 0, so the first allocation added to one fails.
+ * <p>
+ * Each path is called enough times first for the JIT to compile it, like on
+ * the robot after the first few seconds, then the current thread's allocated
+ * bytes are read across a batch of calls. The subsystems run against the
+ * simulated hardware, so the drive base's Limelight reads are checked
+ * separately through LimelightDevice. The compiled path is only checked when
+ * compileTrajectories has been run.
+ * <p>
+ * After a change that is meant to allocate more, or to add a path, record the
+ * new budgets with {@code ./gradlew test --tests '*AllocationBudgetTest'
+ * -PupdateBudgets} and commit the file.
+ */
+class AllocationBudgetTest {
+    private static final String            kBudgetFile  = "src/test/resources/allocation-budgets.properties";
+
+    private static final String            kLimelight   = "limelight-upper";
+
+    private static final int               kWarmupCalls = 20000;
+
+    private static final int               kCalls       = 10000;
+
+    // Averages can pick up a stray allocation, like a map resizing once
+    private static final double            kSlackBytes  = 1.0;
+
+    private static final boolean           kUpdate      = Boolean.getBoolean("updateBudgets");
+
+    private static final ThreadMXBean      threads      = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final Map<String, Long> measured     = new TreeMap<>();
+
+    private static final Properties        budgets      = new Properties();
+
+    private static RobotContainer          container;
+
+    private static LimelightDevice         limelight;
+
+    private static long                    overhead;
+
+    @BeforeAll
+    static void boot() throws IOException {
+        container = SimRobot.boot();
+        SensorSnapshot.getInstance().capture();
+        LimelightRecording.publish(kLimelight);
+        limelight = new LimelightDevice(kLimelight);
+        calibrate();
+
+        try (Reader in = new FileReader(kBudgetFile)) {
+            budgets.load(in);
+        }
+    }
+
+    @AfterAll
+    static void writeBudgets() throws IOException {
+        if (!kUpdate) {
+            return;
+        }
+        // Keep the budgets of paths that weren't run, like the compiled path
+        Map<String, Long> updated = new TreeMap<>();
+        for (String name : budgets.stringPropertyNames()) {
+            updated.put(name, Long.parseLong(budgets.getProperty(name)));
+        }
+        updated.putAll(measured);
+        try (PrintWriter out = new PrintWriter(new File(kBudgetFile))) {
+            out.println("# Bytes each hot path may allocate per call, checked by AllocationBudgetTest.");
+            out.println("# Written by ./gradlew test --tests '*AllocationBudgetTest' -PupdateBudgets,");
+            out.println("# commit it with the change.");
+            for (var entry : updated.entrySet()) {
+                out.println(entry.getKey() + "=" + entry.getValue());
+            }
+        }
+        System.out.println("AllocationBudgetTest: wrote " + kBudgetFile);
+    }
+
+    @Test
+    void climberPeriodic() {
+        checkPeriodic(container.m_climberSubsystem);
+    }
+
+    @Test
+    void elevatorPeriodic() {
+        checkPeriodic(container.m_elevatorSubsystem);
+    }
+
+    @Test
+    void manipulatorPeriodic() {
+        checkPeriodic(container.m_manipulatorSubsystem);
+    }
+
+    @Test
+    void driveBasePeriodic() {
+        checkPeriodic(container.m_driveBaseSubsystem);
+    }
+
+    @Test
+    void shoulderPeriodic() {
+        // RobotContainer doesn't build the shoulder yet, so build one here
+        ShoulderSubsystem shoulder = new ShoulderSubsystem();
+        ParallelInit.await();
+        SensorSnapshot.getInstance().capture();
+        // Solve a profile on the first call, the rest play it back
+        shoulder.setTarget(-45.0);
+        checkPeriodic(shoulder);
+    }
+
+    @Test
+    void moveManualExecute() {
+        checkCommand(container.m_driveBaseSubsystem.getDefaultCommand());
+    }
+
+    @Test
+    void moveAtAngleExecute() {
+        checkCommand(container.m_driveBaseSubsystem.moveAtAngle(() -> 0.5, () -> 0.2, Rotation2d.kZero));
+    }
+
+    @Test
+    void moveFacingExecute() {
+        checkCommand(container.m_driveBaseSubsystem.moveFacing(() -> 0.5, () -> 0.2, new Translation2d(15.0, 6.0)));
+    }
+
+    @Test
+    void moveToExecute() {
+        checkCommand(container.m_driveBaseSubsystem.moveTo(new Pose2d(6.0, 4.0, Rotation2d.kZero)));
+    }
+
+    @Test
+    void stopExecute() {
+        checkCommand(new StopCommand(container.m_driveBaseSubsystem));
+    }
+
+    @Test
+    void followCompiledPathExecute() {
+        CompiledTrajectories trajectories = CompiledTrajectories.getInstance();
+        assumeTrue(trajectories != null && !trajectories.getPathNames().isEmpty(),
+                "No compiled paths, run compileTrajectories first");
+        checkCommand(container.m_driveBaseSubsystem.followCompiledPath(trajectories.getPathNames().get(0)));
+    }
+
+    @Test
+    void botPoseEstimate() {
+        check("LimelightHelpers.getBotPoseEstimate", () -> LimelightHelpers.getBotPoseEstimate_wpiBlue(kLimelight));
+    }
+
+    @Test
+    void rawFiducials() {
+        check("LimelightHelpers.getRawFiducials", () -> LimelightHelpers.getRawFiducials(kLimelight));
+    }
+
+    @Test
+    void latestResults() {
+        check("LimelightHelpers.getLatestResults", () -> LimelightHelpers.getLatestResults(kLimelight));
+    }
+
+    @Test
+    void limelightDevicePoseEstimate() {
+        check("LimelightDevice.getPoseEstimate", () -> limelight.getPoseEstimate(118.4));
+    }
+
+    /**
+     * Measures how many bytes reading the allocation counter allocates itself,
+     * so it can be taken off every measurement
+     *
+     * @return void
+     */
+    private static void calibrate() {
+        long thread = Thread.currentThread().getId();
+        long least  = Long.MAX_VALUE;
+        for (int i = 0; i < kWarmupCalls; i++) {
+            long start = threads.getThreadAllocatedBytes(thread);
+            least = Math.min(least, threads.getThreadAllocatedBytes(thread) - start);
+        }
+        overhead = least;
+    }
+
+    private static void checkPeriodic(SubsystemBase subsystem) {
+        check(subsystem.getClass().getSimpleName() + ".periodic", subsystem::periodic);
+    }
+
+    /**
+     * Checks a command's execute() between its initialize() and end()
+     *
+     * @param command to check
+     * @return void
+     */
+    private static void checkCommand(Command command) {
+        command.initialize();
+        try {
+            check(command.getName() + ".execute", command::execute);
+        } finally {
+            command.end(true);
+        }
+    }
+
+    /**
+     * Warms up a path, measures the bytes it allocates per call, and checks
+     * them against its budget. Only records them when updating the budgets.
+     *
+     * @param name of the path, the key of its budget
+     * @param path to call
+     * @return void
+     */
+    private static void check(String name, Runnable path) {
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < kWarmupCalls; i++) {
+            path.run();
+        }
+        long start = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < kCalls; i++) {
+            path.run();
+        }
+        double bytes = Math.max(0, threads.getThreadAllocatedBytes(thread) - start - overhead) / (double) kCalls;
+        System.out.printf("AllocationBudgetTest: %s allocates %.1f bytes per call%n", name, bytes);
+
+        if (kUpdate) {
+            // Rounded up to whole 8 byte words, paths that didn't allocate stay at 0
+            measured.put(name, (long) Math.ceil(bytes / 8.0) * 8);
+            return;
+        }
+        String budget = budgets.getProperty(name);
+        assertNotNull(budget, name + " has no budget, record one with -PupdateBudgets");
+        assertTrue(bytes <= Double.parseDouble(budget) + kSlackBytes, String.format(
+                "%s allocates %.1f bytes per call, over its budget of %s. Fix the allocation or record a new budget"
+                        + " with -PupdateBudgets",
+                name, bytes, budget));
+    }
+}
@@ -0,0 +1,156 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Runs the whole robot program in simulation without the GUI and without
+ * waiting on the wall clock. Sim time is paused and stepped one robot loop at a
+ * time, each step returns as soon as the loop has run, so a 15 second auto
+ * takes however long the code takes to run 750 loops. How much faster than
+ * real time that is gets printed, the checks are only on sim time because the
+ * wall clock depends on the machine.
+ * <p>
+ * The run is disabled, then autonomous with {@link #kAuto} picked through the
+ * chooser, then teleop following {@link #kTeleopScript}. The HAL simulation,
+ * the CommandScheduler and RobotContainer are global to the JVM, so the test
+ * task forks a new JVM for every test class.
+ */
+class HeadlessSimTest {
+    private static final String     kAuto           = "LeftStartJKL";
+
+    private static final double     kLoopPeriod     = 0.02;
+
+    private static final double     kDisabledTime   = 2.0;
+
+    private static final double     kAutonomousTime = 15.0;
+
+    // Driver joystick script for teleop: start time, then axis 1 (forward), axis 0
+    // (strafe) and axis 4 (rotate)
+    private static final double[][] kTeleopScript   = {
+            { 0.0, -0.5, 0.0, 0.0 },
+            { 2.0, 0.0, 0.5, 0.0 },
+            { 4.0, 0.0, 0.0, 0.5 },
+            { 5.0, 0.0, 0.0, 0.0 } };
+
+    private static final double     kTeleopTime     = 6.0;
+
+    // How far the robot has to get for a phase to count as having driven
+    private static final double     kMinTravel      = 0.25;
+
+    private volatile Command        selectedAuto;
+
+    private volatile double         autoFinishedAt  = Double.NaN;
+
+    @Test
+    void runsDisabledAutonomousAndTeleop() throws Exception {
+        assertTrue(HAL.initialize(500, 0), "Failed to initialize the HAL");
+        SimHooks.pauseTiming();
+
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+        DriverStationSim.setJoystickAxisCount(0, 6);
+        DriverStationSim.setJoystickButtonCount(0, 12);
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+
+        long   wallStart = System.nanoTime();
+        Robot  robot     = new Robot();
+        Thread thread    = new Thread(robot::startCompetition, "HeadlessRobot");
+
+        // Registered before the robot thread starts, the scheduler isn't thread safe
+        CommandScheduler.getInstance().onCommandFinish(command -> {
+            if (command == selectedAuto && Double.isNaN(autoFinishedAt)) {
+                autoFinishedAt = Timer.getFPGATimestamp();
+            }
+        });
+
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            SimHooks.stepTiming(0.0); // Let the robot reach its first loop
+
+            // Disabled, which also gives the auto chooser time to load
+            step(kDisabledTime);
+            SmartDashboard.putString("Auto Chooser/selected", kAuto);
+            step(kLoopPeriod);
+            assertEquals(kAuto, SmartDashboard.getString("Auto Chooser/active", ""),
+                    "Auto chooser didn't load " + kAuto + " while disabled");
+            selectedAuto = RobotContainer.getInstance().getAutonomousCommand();
+            double bootWall = (System.nanoTime() - wallStart) / 1e9;
+
+            long   autoStart    = System.nanoTime();
+            double autoSimStart = Timer.getFPGATimestamp();
+            Pose2d startPose    = getPose();
+            DriverStationSim.setAutonomous(true);
+            DriverStationSim.setEnabled(true);
+            DriverStationSim.notifyNewData();
+            step(kAutonomousTime);
+            double autoWall = (System.nanoTime() - autoStart) / 1e9;
+            Pose2d autoPose = getPose();
+
+            assertFalse(Double.isNaN(autoFinishedAt), kAuto + " didn't finish in " + kAutonomousTime + " s");
+            assertTrue(autoPose.getTranslation().getDistance(startPose.getTranslation()) > kMinTravel,
+                    kAuto + " didn't move the robot");
+
+            long teleopStart = System.nanoTime();
+            DriverStationSim.setAutonomous(false);
+            DriverStationSim.notifyNewData();
+            for (int i = 0; i < kTeleopScript.length; i++) {
+                double[] input = kTeleopScript[i];
+                double   until = i + 1 < kTeleopScript.length ? kTeleopScript[i + 1][0] : kTeleopTime;
+                DriverStationSim.setJoystickAxis(0, 1, input[1]);
+                DriverStationSim.setJoystickAxis(0, 0, input[2]);
+                DriverStationSim.setJoystickAxis(0, 4, input[3]);
+                DriverStationSim.notifyNewData();
+                step(until - input[0]);
+            }
+            double teleopWall = (System.nanoTime() - teleopStart) / 1e9;
+            Pose2d teleopPose = getPose();
+
+            assertTrue(teleopPose.getTranslation().getDistance(autoPose.getTranslation()) > kMinTravel,
+                    "The teleop script didn't move the robot");
+
+            System.out.printf("HeadlessSimTest: boot + disabled took %.2f s%n", bootWall);
+            System.out.printf("HeadlessSimTest: %s finished after %.2f s, %.1f s autonomous in %.2f s (%.0fx)%n",
+                    kAuto, autoFinishedAt - autoSimStart, kAutonomousTime, autoWall, kAutonomousTime / autoWall);
+            System.out.printf("HeadlessSimTest: %.1f s teleop in %.2f s (%.0fx), ended at %s%n", kTeleopTime,
+                    teleopWall, kTeleopTime / teleopWall, teleopPose);
+        } finally {
+            DriverStationSim.setEnabled(false);
+            DriverStationSim.notifyNewData();
+            step(kLoopPeriod);
+            robot.endCompetition();
+            thread.join(1000);
+        }
+    }
+
+    private static Pose2d getPose() {
+        return RobotContainer.getInstance().m_driveBaseSubsystem.getPose();
+    }
+
+    /**
+     * Advances sim time one loop at a time, each step waits for the loop to run
+     *
+     * @param seconds of sim time to run
+     * @return void
+     */
+    private static void step(double seconds) {
+        for (int loops = (int) Math.round(seconds / kLoopPeriod); loops > 0; loops--) {
+            SimHooks.stepTiming(kLoopPeriod);
+        }
+    }
+}